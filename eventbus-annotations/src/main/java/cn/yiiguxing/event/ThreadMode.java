@@ -22,5 +22,10 @@ public enum ThreadMode {
     DEFAULT,
     MAIN,
     POST,
-    ASYNC
+    ASYNC,
+    /**
+     * Each event is handled on a new virtual thread, or as {@link #ASYNC} if the runtime has no
+     * virtual threads.
+     */
+    VIRTUAL
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declare an event contract, an implementation posting to an event bus is generated for it:
+ * <pre><code>
+ * {@literal @}Poster interface UserEvents {
+ *     {@literal @}Post(tag = "login") void login(String user, int id);
+ * }
+ *
+ * UserEvents events = eventBus.createPoster(UserEvents.class);
+ * events.login("user", 1);
+ * </code></pre>
+ * Each method of the interface must be annotated with {@link Post} and return <code>void</code>.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface Poster {
+}
@@ -30,6 +30,13 @@ import java.lang.annotation.Target;
  *     // TODO handle event.
  * }
  * </code></pre>
+ * Tags may be patterns of dot separated segments, <code>"*"</code> matches one segment and
+ * <code>"**"</code> any number of segments:
+ * <pre><code>
+ * {@literal @}Subscribe(tag = "net.**") void onNetEvent({@literal @}Tag String tag, ...) {
+ *     // TODO handle event.
+ * }
+ * </code></pre>
  * <p/>
  * Created by Yii.Guxing on 16/1/28.
  */
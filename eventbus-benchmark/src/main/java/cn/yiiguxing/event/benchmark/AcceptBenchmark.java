@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.benchmark;
+
+import android.support.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.EventBus;
+import cn.yiiguxing.event.Subscriber;
+import cn.yiiguxing.event.handler.EventHandler;
+import cn.yiiguxing.event.internal.MethodSubscriber;
+
+/**
+ * AcceptBenchmark
+ * <p/>
+ * Measures {@link MethodSubscriber#accept(Event)} of the generated subscribers of
+ * {@link Receiver}, with a matching event and with an event of another shape.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AcceptBenchmark {
+
+    @Param({Receiver.TAG_EMPTY, Receiver.TAG_INT, Receiver.TAG_OBJECT, Receiver.TAG_TRIPLE})
+    String tag;
+
+    private MethodSubscriber<?> mSubscriber;
+    private Event mMatching;
+    private Event mMismatching;
+
+    @Setup
+    public void setUp() {
+        // The generated subscribers are only reachable through the event handler they are
+        // delivered by.
+        EventBus bus = new EventBus.Builder("benchmark")
+                .setDefaultEventHandler(new EventHandler() {
+                    @Override
+                    public void handlerEvent(@NonNull Subscriber subscriber,
+                                             @NonNull Event event) {
+                        mSubscriber = (MethodSubscriber<?>) subscriber;
+                    }
+                })
+                .create();
+        bus.register(new Receiver());
+
+        mMatching = matching(bus);
+        mMismatching = Event.obtain(bus, tag, 42L, 42L, 42L, 42L);
+        bus.post(matching(bus));
+        if (mSubscriber == null) {
+            throw new IllegalStateException("No generated subscriber for tag: " + tag);
+        }
+    }
+
+    private Event matching(EventBus bus) {
+        switch (tag) {
+            case Receiver.TAG_INT:
+                return Event.obtain(bus, tag, 42);
+            case Receiver.TAG_OBJECT:
+                return Event.obtain(bus, tag, Payloads.of(1));
+            case Receiver.TAG_TRIPLE:
+                return Event.obtain(bus, tag, Payloads.of(3));
+            default:
+                return Event.obtain(bus, tag);
+        }
+    }
+
+    @Benchmark
+    public boolean acceptMatching() {
+        return mSubscriber.accept(mMatching);
+    }
+
+    @Benchmark
+    public boolean acceptMismatching() {
+        return mSubscriber.accept(mMismatching);
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.EventBus;
+
+/**
+ * EventObtainBenchmark
+ * <p/>
+ * Measures obtaining an event and recycling it by posting it to a tag without subscribers, with
+ * and without the event pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventObtainBenchmark {
+
+    @Param({"0", "50"})
+    int poolCapacity;
+
+    private EventBus mBus;
+    private final Object[] mPayload = Payloads.of(1);
+
+    @Setup
+    public void setUp() {
+        mBus = new EventBus.Builder("benchmark")
+                .setEventPoolCapacity(poolCapacity)
+                .create();
+    }
+
+    @Benchmark
+    public void obtainAndPost() {
+        Event.obtain(mBus, "tag", mPayload).post();
+    }
+
+    @Benchmark
+    public void obtainIntAndPost() {
+        Event.obtain(mBus, "tag", 42).post();
+    }
+
+}
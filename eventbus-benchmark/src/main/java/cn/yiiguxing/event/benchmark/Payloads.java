@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.benchmark;
+
+/**
+ * Payloads
+ * <p/>
+ * The event data of the benchmarks, created up front so that a post allocates only what the
+ * event bus allocates.
+ */
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    /**
+     * Returns the data of the given length, matching the subscribers of {@link Receiver}.
+     */
+    static Object[] of(int arity) {
+        switch (arity) {
+            case 0:
+                return new Object[0];
+            case 1:
+                return new Object[]{"payload"};
+            case 3:
+                return new Object[]{"payload", 42, 42L};
+            default:
+                throw new IllegalArgumentException("Unsupported arity: " + arity);
+        }
+    }
+
+    static String[] tags(int count) {
+        String[] tags = new String[count];
+        for (int i = 0; i < count; i++) {
+            tags[i] = "tag" + i;
+        }
+        return tags;
+    }
+
+}
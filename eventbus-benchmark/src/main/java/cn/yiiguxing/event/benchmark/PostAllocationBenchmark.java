@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.benchmark;
+
+import android.support.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.EventBus;
+import cn.yiiguxing.event.Subscriber;
+import cn.yiiguxing.event.ThreadMode;
+
+/**
+ * PostAllocationBenchmark
+ * <p/>
+ * Measures the allocations of pooled posts, the payload is created up front so the
+ * <code>gc.alloc.rate.norm</code> reported by the GC profiler is allocated by the event bus
+ * itself, and is expected to be zero bytes per operation. <code>PostAllocationTest</code>
+ * guards the same expectation in the unit tests.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostAllocationBenchmark {
+
+    private static final String TAG = "tag";
+    private static final String UNROUTED_TAG = "unrouted";
+    private static final int SUBSCRIBERS = 8;
+
+    private final Object[] mPayload = {42, "payload"};
+
+    private EventBus mBus;
+    private int mValue;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        mBus = new EventBus.Builder("benchmark").create();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            mBus.register(new IntSubscriber(blackhole), TAG, ThreadMode.POST);
+        }
+    }
+
+    @Benchmark
+    public void pooledPost() {
+        mBus.post(TAG, mPayload);
+    }
+
+    @Benchmark
+    public void primitivePost() {
+        mBus.post(TAG, mValue++);
+    }
+
+    @Benchmark
+    public void unroutedPost() {
+        mBus.post(UNROUTED_TAG, mValue++);
+    }
+
+    /**
+     * Reads the primitive data, so that a boxed value would show up in the allocations, and
+     * consumes it so that the read is not eliminated.
+     */
+    static class IntSubscriber implements Subscriber {
+
+        private final Blackhole mBlackhole;
+
+        IntSubscriber(Blackhole blackhole) {
+            mBlackhole = blackhole;
+        }
+
+        @Override
+        public void onEvent(@NonNull Event event) {
+            if (event.getPrimitiveType() == int.class) {
+                mBlackhole.consume(event.getInt());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.yiiguxing.event.EventBus;
+import cn.yiiguxing.event.ThreadMode;
+
+/**
+ * PostBenchmark
+ * <p/>
+ * Measures a post on the posting thread by the number of subscribers per tag, the number of
+ * tags posted to and the length of the event data, and a post to a tag without subscribers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostBenchmark {
+
+    private static final String UNROUTED_TAG = "unrouted";
+
+    @Param({"1", "10", "100"})
+    int subscribers;
+
+    @Param({"1", "16", "256"})
+    int tags;
+
+    @Param({"0", "1", "3"})
+    int arity;
+
+    private EventBus mBus;
+    private String[] mTags;
+    private Object[] mPayload;
+    private int mNext;
+
+    @Setup
+    public void setUp() {
+        mBus = new EventBus.Builder("benchmark").create();
+        mTags = Payloads.tags(tags);
+        mPayload = Payloads.of(arity);
+        for (String tag : mTags) {
+            for (int i = 0; i < subscribers; i++) {
+                mBus.register(new CountingSubscriber(), tag, ThreadMode.POST);
+            }
+        }
+    }
+
+    private String nextTag() {
+        String tag = mTags[mNext];
+        mNext = (mNext + 1) % mTags.length;
+        return tag;
+    }
+
+    @Benchmark
+    public void post() {
+        mBus.post(nextTag(), mPayload);
+    }
+
+    @Benchmark
+    public void postUnrouted() {
+        mBus.post(UNROUTED_TAG, mPayload);
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.yiiguxing.event.EventBus;
+import cn.yiiguxing.event.annotation.Post;
+import cn.yiiguxing.event.annotation.Poster;
+
+/**
+ * PosterBenchmark
+ * <p/>
+ * Compares posts through the generated poster of an event contract and through the channel
+ * looked up by the generated tag ID with the same posts through the untyped methods of the
+ * event bus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PosterBenchmark {
+
+    @Poster
+    public interface ReceiverEvents {
+        @Post(tag = Receiver.TAG_INT)
+        void postInt(int value);
+
+        @Post(tag = Receiver.TAG_TRIPLE)
+        void postTriple(String first, Integer second, Long third);
+    }
+
+    private static final String FIRST = "first";
+    private static final Integer SECOND = 2;
+    private static final Long THIRD = 3L;
+
+    private EventBus mBus;
+    private ReceiverEvents mPoster;
+
+    @Setup
+    public void setUp() {
+        mBus = new EventBus.Builder("benchmark").setTagTable(new BenchmarkTags()).create();
+        mBus.register(new Receiver());
+        mPoster = mBus.createPoster(ReceiverEvents.class);
+    }
+
+    @Benchmark
+    public void postInt() {
+        mBus.post(Receiver.TAG_INT, 1);
+    }
+
+    @Benchmark
+    public void posterInt() {
+        mPoster.postInt(1);
+    }
+
+    @Benchmark
+    public void channelInt() {
+        mBus.getChannel(BenchmarkTags.INT).post(1);
+    }
+
+    @Benchmark
+    public void postTriple() {
+        mBus.post(Receiver.TAG_TRIPLE, FIRST, SECOND, THIRD);
+    }
+
+    @Benchmark
+    public void posterTriple() {
+        mPoster.postTriple(FIRST, SECOND, THIRD);
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.benchmark;
+
+import cn.yiiguxing.event.annotation.Subscribe;
+
+/**
+ * Receiver
+ * <p/>
+ * An annotated subscriber, it is registered through the generated register and delivers through
+ * the generated {@link cn.yiiguxing.event.internal.MethodSubscriber}s.
+ */
+public class Receiver {
+
+    public static final String TAG_EMPTY = "empty";
+    public static final String TAG_INT = "int";
+    public static final String TAG_OBJECT = "object";
+    public static final String TAG_TRIPLE = "triple";
+
+    long received;
+
+    @Subscribe(tag = TAG_EMPTY)
+    void onEmpty() {
+        received++;
+    }
+
+    @Subscribe(tag = TAG_INT)
+    void onInt(int value) {
+        received += value;
+    }
+
+    @Subscribe(tag = TAG_OBJECT)
+    void onObject(String value) {
+        received += value.length();
+    }
+
+    @Subscribe(tag = TAG_TRIPLE)
+    void onTriple(String first, Integer second, Long third) {
+        received += first.length() + second + third;
+    }
+
+}
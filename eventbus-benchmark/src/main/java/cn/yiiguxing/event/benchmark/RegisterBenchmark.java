@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.yiiguxing.event.EventBus;
+import cn.yiiguxing.event.ThreadMode;
+
+/**
+ * RegisterBenchmark
+ * <p/>
+ * Measures registering and unregistering a subscriber on a tag which already has the given
+ * number of subscribers, and registering an annotated subscriber through its generated register.
+ * The registers of annotated classes are cached after the first lookup, so are the misses of
+ * classes without one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegisterBenchmark {
+
+    @Param({"0", "100", "1000"})
+    int subscribers;
+
+    private EventBus mBus;
+    private final CountingSubscriber mSubscriber = new CountingSubscriber();
+    private final Receiver mReceiver = new Receiver();
+    private final Receiver mReceiverSubclass = new Receiver() {
+    };
+    private final Object mPlainTarget = new Object() {
+    };
+
+    @Setup
+    public void setUp() {
+        mBus = new EventBus.Builder("benchmark").create();
+        for (int i = 0; i < subscribers; i++) {
+            mBus.register(new CountingSubscriber(), Receiver.TAG_OBJECT, ThreadMode.POST);
+        }
+    }
+
+    @Benchmark
+    public void registerUnregister() {
+        mBus.register(mSubscriber, Receiver.TAG_OBJECT, ThreadMode.POST);
+        mBus.unregister(mSubscriber);
+    }
+
+    @Benchmark
+    public void registerUnregisterAnnotated() {
+        mBus.register(mReceiver);
+        mBus.unregister(mReceiver);
+    }
+
+    @Benchmark
+    public void registerUnregisterAnnotatedSubclass() {
+        mBus.register(mReceiverSubclass);
+        mBus.unregister(mReceiverSubclass);
+    }
+
+    @Benchmark
+    public void registerUnregisterWithoutRegister() {
+        mBus.register(mPlainTarget);
+        mBus.unregister(mPlainTarget);
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.benchmark;
+
+import android.support.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.EventBus;
+import cn.yiiguxing.event.JvmPlatform;
+import cn.yiiguxing.event.Subscriber;
+import cn.yiiguxing.event.ThreadMode;
+
+/**
+ * ThreadModeBenchmark
+ * <p/>
+ * Measures the time from posting a burst of events until all of them are delivered, by the
+ * thread mode of the subscribers. A single thread stands in for the main thread of
+ * {@link ThreadMode#MAIN} subscribers. {@link ThreadMode#VIRTUAL} runs as ASYNC on runtimes
+ * without virtual threads. The burst is posted one by one or as one batch with
+ * {@link EventBus#postAll(String, Iterable)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreadModeBenchmark {
+
+    private static final int EVENTS = 1000;
+    private static final int SUBSCRIBERS = 10;
+
+    public enum DeliveryMode {
+        POST, MAIN, ASYNC, ASYNC_BATCHED, VIRTUAL
+    }
+
+    @Param
+    DeliveryMode mode;
+
+    private ExecutorService mExecutor;
+    private ExecutorService mMainThread;
+    private EventBus mBus;
+    private final AtomicInteger mPending = new AtomicInteger();
+    private final Object[] mPayload = Payloads.of(1);
+    private final List<Object[]> mBatch = Collections.nCopies(EVENTS, mPayload);
+
+    @Setup
+    public void setUp() {
+        mExecutor = Executors.newFixedThreadPool(4);
+        mMainThread = Executors.newSingleThreadExecutor();
+
+        EventBus.Builder builder = new EventBus.Builder("benchmark")
+                .setPlatform(new JvmPlatform(mMainThread))
+                .setExecutor(mExecutor);
+        if (mode == DeliveryMode.ASYNC_BATCHED) {
+            builder.setAsyncBatchSize(64);
+        }
+        mBus = builder.create();
+
+        ThreadMode threadMode;
+        switch (mode) {
+            case POST:
+                threadMode = ThreadMode.POST;
+                break;
+            case MAIN:
+                threadMode = ThreadMode.MAIN;
+                break;
+            case VIRTUAL:
+                threadMode = ThreadMode.VIRTUAL;
+                break;
+            default:
+                threadMode = ThreadMode.ASYNC;
+                break;
+        }
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            mBus.register(new Subscriber() {
+                @Override
+                public void onEvent(@NonNull Event event) {
+                    mPending.decrementAndGet();
+                }
+            }, "tag", threadMode);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mExecutor.shutdown();
+        mMainThread.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void postAndDeliver() {
+        mPending.set(EVENTS * SUBSCRIBERS);
+        for (int i = 0; i < EVENTS; i++) {
+            mBus.post("tag", mPayload);
+        }
+        await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void postAllAndDeliver() {
+        mPending.set(EVENTS * SUBSCRIBERS);
+        mBus.postAll("tag", mBatch);
+        await();
+    }
+
+    private void await() {
+        while (mPending.get() > 0) {
+            Thread.yield();
+        }
+    }
+
+}
@@ -15,6 +15,8 @@ package cn.yiiguxing.event.compiler;
 
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
@@ -24,8 +26,11 @@ import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.TypeVariableName;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.lang.model.element.Modifier;
@@ -53,16 +58,32 @@ class BindingClass {
             ClassName.get("cn.yiiguxing.event.internal", "MethodSubscriber");
     private static final ClassName CLASS_THREAD_MODE =
             ClassName.get("cn.yiiguxing.event", "ThreadMode");
+    private static final ClassName CLASS_METHOD_DISPATCHER =
+            ClassName.get("cn.yiiguxing.event.internal", "MethodDispatcher");
+    private static final ClassName CLASS_INDEXED_METHOD_SUBSCRIBER =
+            ClassName.get("cn.yiiguxing.event.internal", "IndexedMethodSubscriber");
     private static final ClassName CLASS_NONNULL =
             ClassName.get("android.support.annotation", "NonNull");
 
+    private static final String FIELD_DISPATCHER = "dispatcher";
+    /**
+     * The value of {@code EventBus.DEFAULT_TAG}, the tag of a method without tags.
+     */
+    private static final String DEFAULT_TAG = "";
+
     private final String classPackage;
     private final String className;
     private final String targetClass;
 
     private final Set<BindingMethod> methods = new LinkedHashSet<>();
 
+    /**
+     * Superclasses whose methods are registered by this class in dispatcher mode, nearest first.
+     */
+    private final List<BindingClass> flattenedParents = new ArrayList<>();
+
     private String parentBindingClass;
+    private boolean dispatcher;
 
     BindingClass(String classPackage, String className, String targetClass) {
         this.classPackage = classPackage;
@@ -74,14 +95,71 @@ class BindingClass {
         this.parentBindingClass = parentBindingClass;
     }
 
+    /**
+     * Generates one {@code MethodDispatcher} for all methods instead of one
+     * {@code MethodSubscriber} class per method.
+     */
+    void setDispatcher(boolean dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    void addFlattenedParent(BindingClass parent) {
+        flattenedParents.add(parent);
+    }
+
     void addBindingMethod(BindingMethod method) {
         methods.add(method);
     }
 
+    String getClassPackage() {
+        return classPackage;
+    }
+
+    /**
+     * Returns whether the generated code of a subclass in the given package can call all
+     * methods of this class.
+     */
+    boolean isCallableFrom(String packageName) {
+        if (classPackage.equals(packageName)) {
+            return true;
+        }
+        for (BindingMethod method : methods) {
+            if (!method.isPublicApi) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the tags the methods of this class subscribe to.
+     */
+    Set<String> getTags() {
+        Set<String> tags = new LinkedHashSet<>();
+        for (BindingMethod method : methods) {
+            if (method.tags.length == 0) {
+                tags.add(DEFAULT_TAG);
+            } else {
+                tags.addAll(Arrays.asList(method.tags));
+            }
+        }
+
+        return tags;
+    }
+
     String getRegisterClassName() {
         return classPackage + "." + className;
     }
 
+    ClassName getRegisterClass() {
+        return ClassName.get(classPackage, className);
+    }
+
+    ClassName getTargetClass() {
+        return ClassName.bestGuess(targetClass);
+    }
+
     JavaFile brewJava() {
         AnnotationSpec as = AnnotationSpec
                 .builder(Generated.class)
@@ -101,7 +179,13 @@ class BindingClass {
                     TypeVariableName.get("T")));
         }
 
-        register.addMethod(createRegisterMethod());
+        if (dispatcher) {
+            Map<BindingMethod, List<String>> bindings = getFlattenedMethods();
+            register.addField(createDispatcherField(new ArrayList<>(bindings.keySet())));
+            register.addMethod(createDispatcherRegisterMethod(bindings));
+        } else {
+            register.addMethod(createRegisterMethod());
+        }
 
         return JavaFile.builder(classPackage, register.build())
                 .addFileComment("Generated code from EventBus. Do not modify!")
@@ -155,28 +239,197 @@ class BindingClass {
                                              MethodSpec.Builder method,
                                              ParameterSpec target,
                                              ParameterSpec event) {
-        MethodSpec.Builder callbackMethod = handlerEventMethodBuilder(target, event);
-        MethodSpec.Builder acceptMethod = acceptBuilder(event);
+        CodeBlock.Builder callbackCode = CodeBlock.builder();
+        CodeBlock.Builder acceptCode = CodeBlock.builder();
+        buildMethodCode(binding, callbackCode, acceptCode, target, event);
+
+        TypeSpec subscriber =
+                TypeSpec.anonymousClassBuilder("target,\n        $S", binding.signature)
+                        .superclass(ParameterizedTypeName.get(CLASS_METHOD_SUBSCRIBER,
+                                TypeVariableName.get("T")))
+                        .addMethod(handlerEventMethodBuilder(target, event)
+                                .addCode(callbackCode.build())
+                                .build())
+                        .addMethod(acceptBuilder(event)
+                                .addCode(acceptCode.build())
+                                .build())
+                        .build();
+        method.addCode("\n");
+        method.addStatement("subscriber = $L", subscriber);
+
+        callRegister(binding, method);
+    }
+
+    /**
+     * Dispatcher mode: one anonymous {@code MethodDispatcher} per target class handles all
+     * methods by their index, the subscribers are all {@code IndexedMethodSubscriber}s.
+     */
+    private FieldSpec createDispatcherField(List<BindingMethod> bindings) {
+        ParameterSpec target = ParameterSpec.builder(TypeVariableName.get("T"), "target")
+                .addAnnotation(CLASS_NONNULL).build();
+        ParameterSpec index = ParameterSpec.builder(TypeName.INT, "method").build();
+        ParameterSpec event = ParameterSpec.builder(CLASS_EVENT, "event")
+                .addAnnotation(CLASS_NONNULL).build();
+
+        MethodSpec.Builder accept = MethodSpec.methodBuilder("accept")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.BOOLEAN)
+                .addParameter(index)
+                .addParameter(event)
+                .beginControlFlow("switch ($N)", index);
+        MethodSpec.Builder dispatch = MethodSpec.methodBuilder("dispatch")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addException(ClassName.get(Throwable.class))
+                .addParameter(target)
+                .addParameter(index)
+                .addParameter(event)
+                .beginControlFlow("switch ($N)", index);
+
+        for (int i = 0; i < bindings.size(); i++) {
+            CodeBlock.Builder callbackCode = CodeBlock.builder();
+            CodeBlock.Builder acceptCode = CodeBlock.builder();
+            buildMethodCode(bindings.get(i), callbackCode, acceptCode, target, event);
+
+            accept.beginControlFlow("case $L:", i)
+                    .addCode(acceptCode.build())
+                    .endControlFlow();
+            dispatch.beginControlFlow("case $L:", i)
+                    .addCode(callbackCode.build())
+                    .addStatement("return")
+                    .endControlFlow();
+        }
+
+        accept.endControlFlow()
+                .addStatement("throw new $T(\"Unknown method: \" + $N)",
+                        IllegalArgumentException.class, index);
+        dispatch.endControlFlow()
+                .addStatement("throw new $T(\"Unknown method: \" + $N)",
+                        IllegalArgumentException.class, index);
+
+        TypeName dispatcherType = ParameterizedTypeName.get(CLASS_METHOD_DISPATCHER,
+                TypeVariableName.get("T"));
+        TypeSpec dispatcher = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(dispatcherType)
+                .addMethod(accept.build())
+                .addMethod(dispatch.build())
+                .build();
+
+        return FieldSpec.builder(dispatcherType, FIELD_DISPATCHER,
+                Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("$L", dispatcher)
+                .build();
+    }
+
+    private MethodSpec createDispatcherRegisterMethod(Map<BindingMethod, List<String>> bindings) {
+        MethodSpec.Builder method = MethodSpec.methodBuilder("register")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(CLASS_EVENT_BUS, "eventBus", Modifier.FINAL)
+                .addParameter(TypeVariableName.get("T"), "target", Modifier.FINAL);
+
+        if (parentBindingClass != null) {
+            method.addStatement("super.register(eventBus, target)");
+        }
+        method.addStatement("$T<T> subscriber", CLASS_METHOD_SUBSCRIBER);
+
+        int i = 0;
+        for (Map.Entry<BindingMethod, List<String>> entry : bindings.entrySet()) {
+            BindingMethod binding = entry.getKey();
+            method.addCode("\n");
+            method.addStatement("subscriber = new $T<>(target, $S, $N, $L)",
+                    CLASS_INDEXED_METHOD_SUBSCRIBER, binding.signature, FIELD_DISPATCHER, i++);
+            for (String tag : entry.getValue()) {
+                callRegister(binding, tag, method);
+            }
+        }
+
+        return method.build();
+    }
+
+    /**
+     * Returns the methods of the flattened parents and the own methods with the tags each of
+     * them is registered for, in the order the chained registers would register them. A method
+     * overridden with another {@code @Subscribe} keeps the tags of the overridden declarations,
+     * like a chained register calling {@code super.register}, and a tag declared again is
+     * registered with its latest declaration.
+     */
+    private Map<BindingMethod, List<String>> getFlattenedMethods() {
+        Map<String, BindingMethod> registrations = new LinkedHashMap<>();
+        for (int i = flattenedParents.size() - 1; i >= 0; i--) {
+            for (BindingMethod method : flattenedParents.get(i).methods) {
+                putRegistrations(registrations, method);
+            }
+        }
+        for (BindingMethod method : this.methods) {
+            putRegistrations(registrations, method);
+        }
+
+        Map<BindingMethod, List<String>> bindings = new LinkedHashMap<>();
+        for (Map.Entry<String, BindingMethod> entry : registrations.entrySet()) {
+            BindingMethod method = entry.getValue();
+            List<String> tags = bindings.get(method);
+            if (tags == null) {
+                tags = new ArrayList<>();
+                bindings.put(method, tags);
+            }
+            String key = entry.getKey();
+            tags.add(key.substring(key.indexOf('\n') + 1));
+        }
+
+        return bindings;
+    }
 
+    /**
+     * Keys the registrations of the given method by its signature and tag, a registration
+     * already made keeps its position and is overridden by the latest method, as the event bus
+     * does for a subscriber registered again.
+     */
+    private static void putRegistrations(Map<String, BindingMethod> registrations,
+                                         BindingMethod method) {
+        if (method.tags.length == 0) {
+            registrations.put(method.signature + '\n' + DEFAULT_TAG, method);
+        } else {
+            for (String tag : method.tags) {
+                registrations.put(method.signature + '\n' + tag, method);
+            }
+        }
+    }
+
+    /**
+     * Builds the code which handles an event with the given method and the code which returns
+     * whether the method accepts an event.
+     */
+    private void buildMethodCode(BindingMethod binding,
+                                 CodeBlock.Builder callbackMethod,
+                                 CodeBlock.Builder acceptMethod,
+                                 ParameterSpec target,
+                                 ParameterSpec event) {
         TypeMirror[] parameterTypes = binding.parameterTypes;
         boolean hasTagParam = binding.tagParamName != null;
         if (parameterTypes.length == 0) {
             if (hasTagParam) {
-                callbackMethod.addStatement("$N." + binding.name + "($N.getTag())", target, event);
+                callbackMethod.addStatement(replyTo(binding, "$N." + binding.name + "($N.getTag())"),
+                        target, event);
             } else {
-                callbackMethod.addStatement("$N." + binding.name + "()", target);
+                callbackMethod.addStatement(replyTo(binding, "$N." + binding.name + "()"), target);
             }
             acceptMethod.addStatement(
                     "return $N.getData() == null || $N.getData().length == 0", event, event);
         } else if (parameterTypes.length == 1
                 && parameterTypes[0].toString().equals(CLASS_NAME_EVENT)) {
             if (hasTagParam) {
-                callbackMethod.addStatement("$N." + binding.name + "($N.getTag(), $N)", target,
+                callbackMethod.addStatement(
+                        replyTo(binding, "$N." + binding.name + "($N.getTag(), $N)"), target,
                         event, event);
             } else {
-                callbackMethod.addStatement("$N." + binding.name + "($N)", target, event);
+                callbackMethod.addStatement(replyTo(binding, "$N." + binding.name + "($N)"), target,
+                        event);
             }
             acceptMethod.addStatement("return true");
+        } else if (parameterTypes.length == 1 && parameterTypes[0].getKind().isPrimitive()) {
+            buildPrimitiveCode(binding, callbackMethod, acceptMethod, target, event);
         } else {
             StringBuilder acceptCode = new StringBuilder("return data != null && ")
                     .append("data.length == ").append(parameterTypes.length);
@@ -208,7 +461,7 @@ class BindingClass {
             call.append("\n)");
 
             types.add(0, target);
-            callbackMethod.addStatement(call.toString(), types.toArray());
+            callbackMethod.addStatement(replyTo(binding, call.toString()), types.toArray());
 
             types.remove(0);
             for (int i = 0; i < types.size(); i++) {
@@ -221,33 +474,66 @@ class BindingClass {
             acceptMethod.addStatement("Object[] data = $N.getData()", event);
             acceptMethod.addStatement(acceptCode.toString(), types.toArray());
         }
+    }
 
-        TypeSpec subscriber =
-                TypeSpec.anonymousClassBuilder("target,\n        $S", binding.signature)
-                        .superclass(ParameterizedTypeName.get(CLASS_METHOD_SUBSCRIBER,
-                                TypeVariableName.get("T")))
-                        .addMethod(callbackMethod.build())
-                        .addMethod(acceptMethod.build())
-                        .build();
-        method.addCode("\n");
-        method.addStatement("subscriber = $L", subscriber);
+    /**
+     * Single primitive parameter: primitive events are read from their primitive slot without
+     * boxing, boxed data is still accepted.
+     */
+    private void buildPrimitiveCode(BindingMethod binding,
+                                    CodeBlock.Builder callbackMethod,
+                                    CodeBlock.Builder acceptMethod,
+                                    ParameterSpec target,
+                                    ParameterSpec event) {
+        TypeName type = TypeName.get(binding.parameterTypes[0]);
+        String typeName = type.toString();
+        String getter = "get" + Character.toUpperCase(typeName.charAt(0)) + typeName.substring(1);
+
+        callbackMethod.addStatement("$T value = $N.getPrimitiveType() == $T.class\n"
+                + "? $N.$L()\n: ($T) $N.getData()[0]", type, event, type, event, getter, type, event);
+        if (binding.tagParamName != null) {
+            callbackMethod.addStatement(
+                    replyTo(binding, "$N." + binding.name + "($N.getTag(), value)"), target, event);
+        } else {
+            callbackMethod.addStatement(replyTo(binding, "$N." + binding.name + "(value)"), target);
+        }
 
-        callRegister(binding, method);
+        acceptMethod.beginControlFlow("if ($N.getPrimitiveType() == $T.class)", event, type)
+                .addStatement("return true")
+                .endControlFlow();
+        acceptMethod.addStatement("Object[] data = $N.getData()", event);
+        acceptMethod.addStatement("return data != null && data.length == 1\n"
+                + "&& data[0] instanceof $T", type.box());
+    }
+
+    /**
+     * Wraps the call of a method which returns a value, so the value is the reply to the event.
+     */
+    private static String replyTo(BindingMethod binding, String call) {
+        return binding.returnsValue ? "event.reply(" + call + ")" : call;
     }
 
     private void callRegister(BindingMethod binding, MethodSpec.Builder method) {
         String[] tags = binding.tags;
         if (tags.length == 0) {
-            method.addStatement("eventBus.register(subscriber, $T.DEFAULT_TAG, $T." +
-                    binding.mode + ")", CLASS_EVENT_BUS, CLASS_THREAD_MODE);
+            callRegister(binding, DEFAULT_TAG, method);
         } else {
             for (String tag : tags) {
-                method.addStatement("eventBus.register(subscriber, $S, $T." + binding.mode + ")",
-                        tag, CLASS_THREAD_MODE);
+                callRegister(binding, tag, method);
             }
         }
     }
 
+    private void callRegister(BindingMethod binding, String tag, MethodSpec.Builder method) {
+        if (DEFAULT_TAG.equals(tag)) {
+            method.addStatement("eventBus.register(subscriber, $T.DEFAULT_TAG, $T." +
+                    binding.mode + ")", CLASS_EVENT_BUS, CLASS_THREAD_MODE);
+        } else {
+            method.addStatement("eventBus.register(subscriber, $S, $T." + binding.mode + ")",
+                    tag, CLASS_THREAD_MODE);
+        }
+    }
+
     @Override
     public String toString() {
         return "BindingClass{" +
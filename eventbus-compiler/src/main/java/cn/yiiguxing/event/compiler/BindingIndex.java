@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.compiler;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.Modifier;
+
+import cn.yiiguxing.event.annotation.Generated;
+
+/**
+ * BindingIndex
+ * <p/>
+ * The subscriber index of a module, maps the target classes to instances of their generated
+ * registers.
+ */
+class BindingIndex {
+
+    private static final ClassName CLASS_SUBSCRIBER_INDEX =
+            ClassName.get("cn.yiiguxing.event", "SubscriberIndex");
+    private static final ClassName CLASS_SUBSCRIBE_REGISTER =
+            ClassName.get("cn.yiiguxing.event.internal", "SubscribeRegister");
+    private static final ClassName CLASS_NONNULL =
+            ClassName.get("android.support.annotation", "NonNull");
+
+    private final String classPackage;
+    private final String className;
+
+    private final List<BindingClass> bindingClasses = new ArrayList<>();
+
+    BindingIndex(String indexClass) {
+        int index = indexClass.lastIndexOf('.');
+        this.classPackage = index < 0 ? "" : indexClass.substring(0, index);
+        this.className = indexClass.substring(index + 1);
+    }
+
+    String getClassPackage() {
+        return classPackage;
+    }
+
+    String getIndexClassName() {
+        return classPackage.isEmpty() ? className : classPackage + "." + className;
+    }
+
+    void addBindingClass(BindingClass bindingClass) {
+        bindingClasses.add(bindingClass);
+    }
+
+    JavaFile brewJava() {
+        AnnotationSpec as = AnnotationSpec
+                .builder(Generated.class)
+                .addMember("value", "$S", EventSubscriberProcessor.class.getCanonicalName())
+                .build();
+
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(Object.class));
+        TypeName registerType = ParameterizedTypeName.get(CLASS_SUBSCRIBE_REGISTER,
+                WildcardTypeName.subtypeOf(Object.class));
+        TypeName mapType = ParameterizedTypeName.get(ClassName.get(Map.class),
+                classType, registerType);
+
+        FieldSpec registers = FieldSpec.builder(mapType, "REGISTERS",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T<>()", HashMap.class)
+                .build();
+
+        CodeBlock.Builder init = CodeBlock.builder();
+        for (BindingClass bindingClass : bindingClasses) {
+            ClassName target = bindingClass.getTargetClass();
+            init.addStatement("REGISTERS.put($T.class, new $T<$T>())", target,
+                    bindingClass.getRegisterClass(), target);
+        }
+
+        ParameterSpec subscriberClass = ParameterSpec.builder(classType, "subscriberClass")
+                .addAnnotation(CLASS_NONNULL).build();
+        MethodSpec getRegister = MethodSpec.methodBuilder("getRegister")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(registerType)
+                .addParameter(subscriberClass)
+                .addStatement("return REGISTERS.get(subscriberClass)")
+                .build();
+
+        TypeSpec index = TypeSpec.classBuilder(className)
+                .addAnnotation(as)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(CLASS_SUBSCRIBER_INDEX)
+                .addField(registers)
+                .addStaticBlock(init.build())
+                .addMethod(getRegister)
+                .build();
+
+        return JavaFile.builder(classPackage, index)
+                .addFileComment("Generated code from EventBus. Do not modify!")
+                .indent("    ")
+                .skipJavaLangImports(true)
+                .build();
+    }
+
+}
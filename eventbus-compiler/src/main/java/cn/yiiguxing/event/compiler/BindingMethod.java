@@ -32,19 +32,32 @@ class BindingMethod {
     final String signature;
     final String[] tags;
     final ThreadMode mode;
+    /**
+     * Whether the method and its parameter types are public, so code in other packages can
+     * call it.
+     */
+    final boolean isPublicApi;
+    /**
+     * Whether the method returns a value, which is then the reply to the event.
+     */
+    final boolean returnsValue;
 
     public BindingMethod(String name,
                          String tagParamName,
                          TypeMirror[] parameterTypes,
                          String signature,
                          String[] tags,
-                         ThreadMode mode) {
+                         ThreadMode mode,
+                         boolean isPublicApi,
+                         boolean returnsValue) {
         this.name = name;
         this.tagParamName = tagParamName;
         this.parameterTypes = parameterTypes;
         this.signature = signature;
         this.tags = tags;
         this.mode = mode;
+        this.isPublicApi = isPublicApi;
+        this.returnsValue = returnsValue;
     }
 
     @Override
@@ -56,6 +69,8 @@ class BindingMethod {
                 ", signature='" + signature + '\'' +
                 ", tags=" + Arrays.toString(tags) +
                 ", mode=" + mode +
+                ", isPublicApi=" + isPublicApi +
+                ", returnsValue=" + returnsValue +
                 '}';
     }
 }
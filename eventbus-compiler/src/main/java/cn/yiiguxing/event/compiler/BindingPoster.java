@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.compiler;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+import cn.yiiguxing.event.annotation.Generated;
+
+/**
+ * BindingPoster
+ * <p/>
+ * The poster of an event contract, implements each method by posting its arguments through
+ * the {@code Channel} of its tag. A method whose parameter types are all primitive or final
+ * classes posts with its own {@code Channel.Shape}, so its subscriptions are resolved once per
+ * route rather than matched against the data of every event.
+ */
+class BindingPoster {
+
+    private static final ClassName CLASS_EVENT_BUS =
+            ClassName.get("cn.yiiguxing.event", "EventBus");
+    private static final ClassName CLASS_CHANNEL =
+            ClassName.get("cn.yiiguxing.event", "Channel");
+    private static final ClassName CLASS_SHAPE =
+            ClassName.get("cn.yiiguxing.event", "Channel", "Shape");
+
+    private final String classPackage;
+    private final String className;
+    private final ClassName contract;
+
+    private final List<ExecutableElement> methods = new ArrayList<>();
+    private final List<String> tags = new ArrayList<>();
+
+    BindingPoster(String classPackage, String className, ClassName contract) {
+        this.classPackage = classPackage;
+        this.className = className;
+        this.contract = contract;
+    }
+
+    void addPostMethod(ExecutableElement method, String tag) {
+        methods.add(method);
+        tags.add(tag);
+    }
+
+    List<String> getTags() {
+        return tags;
+    }
+
+    String getPosterClassName() {
+        return classPackage + "." + className;
+    }
+
+    JavaFile brewJava() {
+        AnnotationSpec as = AnnotationSpec
+                .builder(Generated.class)
+                .addMember("value", "$S", EventSubscriberProcessor.class.getCanonicalName())
+                .build();
+
+        TypeSpec.Builder poster = TypeSpec.classBuilder(className)
+                .addAnnotation(as)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(contract);
+
+        // One shape per method whose parameter types are exact, the other methods post
+        // through one channel per tag.
+        Map<String, String> channels = new LinkedHashMap<>();
+        List<String> posts = new ArrayList<>();
+        MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(CLASS_EVENT_BUS, "eventBus");
+        for (int i = 0; i < methods.size(); i++) {
+            String tag = tags.get(i);
+            List<? extends VariableElement> parameters = methods.get(i).getParameters();
+            if (isExact(parameters)) {
+                String field = "shape" + i;
+                poster.addField(FieldSpec.builder(CLASS_SHAPE, field,
+                        Modifier.PRIVATE, Modifier.FINAL).build());
+                CodeBlock.Builder types = CodeBlock.builder();
+                for (int j = 0; j < parameters.size(); j++) {
+                    types.add(j > 0 ? ", $T.class" : "$T.class",
+                            rawType(parameters.get(j).asType()));
+                }
+                constructor.addStatement("this.$N = eventBus.getChannel($S).shape($L)",
+                        field, tag, types.build());
+                posts.add(field);
+                continue;
+            }
+
+            String field = channels.get(tag);
+            if (field == null) {
+                field = "channel" + channels.size();
+                channels.put(tag, field);
+                poster.addField(FieldSpec.builder(CLASS_CHANNEL, field,
+                        Modifier.PRIVATE, Modifier.FINAL).build());
+                constructor.addStatement("this.$N = eventBus.getChannel($S)", field, tag);
+            }
+            posts.add(field);
+        }
+        poster.addMethod(constructor.build());
+
+        for (int i = 0; i < methods.size(); i++) {
+            poster.addMethod(createPostMethod(methods.get(i), posts.get(i)));
+        }
+
+        return JavaFile.builder(classPackage, poster.build())
+                .addFileComment("Generated code from EventBus. Do not modify!")
+                .indent("    ")
+                .skipJavaLangImports(true)
+                .build();
+    }
+
+    /**
+     * Returns whether all arguments of the given parameters have exactly their types, so the
+     * subscriptions of their events can be resolved ahead.
+     */
+    private static boolean isExact(List<? extends VariableElement> parameters) {
+        for (VariableElement parameter : parameters) {
+            if (!isExact(parameter.asType())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isExact(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isExact(((ArrayType) type).getComponentType());
+        }
+
+        return type.getKind() == TypeKind.DECLARED
+                && ((DeclaredType) type).asElement().getModifiers().contains(Modifier.FINAL);
+    }
+
+    /**
+     * Returns the type of the class literal of the given exact type.
+     */
+    private static TypeName rawType(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return ArrayTypeName.of(rawType(((ArrayType) type).getComponentType()));
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return ClassName.get((TypeElement) ((DeclaredType) type).asElement());
+        }
+
+        return TypeName.get(type);
+    }
+
+    /**
+     * @param poster the channel or the shape the method posts with.
+     */
+    private static MethodSpec createPostMethod(ExecutableElement element, String poster) {
+        List<? extends VariableElement> parameters = element.getParameters();
+        CodeBlock.Builder code = CodeBlock.builder().add("$N.post(", poster);
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                code.add(", ");
+            }
+            VariableElement parameter = parameters.get(i);
+            // A single array would be taken as the data array by the varargs overload.
+            if (parameters.size() == 1 && parameter.asType().getKind() == TypeKind.ARRAY) {
+                code.add("($T) ", Object.class);
+            }
+            code.add("$N", parameter.getSimpleName().toString());
+        }
+        code.add(");\n");
+
+        MethodSpec.Builder method = MethodSpec.methodBuilder(element.getSimpleName().toString())
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .varargs(element.isVarArgs());
+        for (TypeParameterElement typeParameter : element.getTypeParameters()) {
+            method.addTypeVariable(TypeVariableName.get(typeParameter));
+        }
+        for (VariableElement parameter : parameters) {
+            method.addParameter(TypeName.get(parameter.asType()),
+                    parameter.getSimpleName().toString());
+        }
+
+        return method.addCode(code.build()).build();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.compiler;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.lang.model.element.Modifier;
+
+import cn.yiiguxing.event.annotation.Generated;
+
+/**
+ * BindingTags
+ * <p/>
+ * The tag table of a module, assigns each declared tag an ID by its order among the sorted
+ * tags and declares a constant per tag. The IDs do not depend on the order in which the tags
+ * are found, but adding or removing a tag renumbers the tags sorted after it, and the tables
+ * of different modules use the same IDs. An ID is therefore only valid with the table
+ * generated in the same build, which is the one the event bus must be built with.
+ */
+class BindingTags {
+
+    private static final ClassName CLASS_TAG_TABLE =
+            ClassName.get("cn.yiiguxing.event", "TagTable");
+    private static final ClassName CLASS_NONNULL =
+            ClassName.get("android.support.annotation", "NonNull");
+
+    private static final String DEFAULT_TAG_NAME = "DEFAULT";
+    private static final String FIELD_TAGS = "TAGS";
+
+    private final String classPackage;
+    private final String className;
+
+    private final Set<String> tags = new TreeSet<>();
+
+    BindingTags(String tagsClass) {
+        int index = tagsClass.lastIndexOf('.');
+        this.classPackage = index < 0 ? "" : tagsClass.substring(0, index);
+        this.className = tagsClass.substring(index + 1);
+    }
+
+    String getTagsClassName() {
+        return classPackage.isEmpty() ? className : classPackage + "." + className;
+    }
+
+    /**
+     * Adds a tag to the table, tag patterns are skipped as events cannot be posted to them.
+     */
+    void addTag(String tag) {
+        if (!isPattern(tag)) {
+            tags.add(tag);
+        }
+    }
+
+    /**
+     * Returns whether the given tag is a pattern, i.e. has a <code>"*"</code> or
+     * <code>"**"</code> segment.
+     */
+    static boolean isPattern(String tag) {
+        for (String segment : tag.split("\\.", -1)) {
+            if (segment.equals("*") || segment.equals("**")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    JavaFile brewJava() {
+        AnnotationSpec as = AnnotationSpec
+                .builder(Generated.class)
+                .addMember("value", "$S", EventSubscriberProcessor.class.getCanonicalName())
+                .build();
+
+        TypeSpec.Builder table = TypeSpec.classBuilder(className)
+                .addAnnotation(as)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(CLASS_TAG_TABLE);
+
+        Set<String> names = new HashSet<>();
+        names.add(FIELD_TAGS);
+        CodeBlock.Builder values = CodeBlock.builder().add("{");
+        int id = 0;
+        for (String tag : tags) {
+            String name = constantName(tag);
+            if (!names.add(name)) {
+                name = name + "_" + id;
+                names.add(name);
+            }
+
+            table.addField(FieldSpec.builder(int.class, name,
+                    Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$L", id)
+                    .build());
+            values.add(id == 0 ? "$S" : ", $S", tag);
+            id++;
+        }
+        values.add("}");
+
+        ArrayTypeName tagsType = ArrayTypeName.of(String.class);
+        table.addField(FieldSpec.builder(tagsType, FIELD_TAGS,
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(values.build())
+                .build());
+
+        table.addMethod(MethodSpec.methodBuilder("getTags")
+                .addAnnotation(Override.class)
+                .addAnnotation(CLASS_NONNULL)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(tagsType)
+                .addStatement("return $N.clone()", FIELD_TAGS)
+                .build());
+
+        return JavaFile.builder(classPackage, table.build())
+                .addFileComment("Generated code from EventBus. Do not modify!")
+                .indent("    ")
+                .skipJavaLangImports(true)
+                .build();
+    }
+
+    /**
+     * Returns the name of the constant of the given tag, e.g. <code>USER_LOGIN</code> for
+     * <code>userLogin</code> or <code>user.login</code>.
+     */
+    private static String constantName(String tag) {
+        if (tag.isEmpty()) {
+            return DEFAULT_TAG_NAME;
+        }
+
+        StringBuilder name = new StringBuilder();
+        char previous = 0;
+        for (int i = 0; i < tag.length(); i++) {
+            char c = tag.charAt(i);
+            if (Character.isUpperCase(c) && Character.isLowerCase(previous)) {
+                name.append('_');
+            }
+            name.append(Character.isJavaIdentifierPart(c) ? Character.toUpperCase(c) : '_');
+            previous = c;
+        }
+
+        if (!Character.isJavaIdentifierStart(name.charAt(0))) {
+            name.insert(0, '_');
+        }
+
+        return name.toString();
+    }
+}
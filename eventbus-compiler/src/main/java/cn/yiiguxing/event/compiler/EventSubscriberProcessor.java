@@ -13,6 +13,8 @@
 
 package cn.yiiguxing.event.compiler;
 
+import com.squareup.javapoet.ClassName;
+
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -37,18 +39,24 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.tools.JavaFileObject;
 
 import cn.yiiguxing.event.ThreadMode;
+import cn.yiiguxing.event.annotation.Post;
+import cn.yiiguxing.event.annotation.Poster;
 import cn.yiiguxing.event.annotation.Subscribe;
 import cn.yiiguxing.event.annotation.Tag;
 
 import static javax.lang.model.element.ElementKind.CLASS;
+import static javax.lang.model.element.Modifier.ABSTRACT;
 import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
 import static javax.tools.Diagnostic.Kind.ERROR;
 import static javax.tools.Diagnostic.Kind.WARNING;
@@ -63,9 +71,31 @@ public class EventSubscriberProcessor extends AbstractProcessor {
     public static final String ANDROID_PREFIX = "android.";
     public static final String JAVA_PREFIX = "java.";
     public static final String SUFFIX = "$$SubRegister";
+    public static final String POSTER_SUFFIX = "$$Poster";
+    /**
+     * The fully qualified name of the subscriber index to generate, no index if absent.
+     */
+    public static final String OPTION_EVENT_BUS_INDEX = "eventBusIndex";
+    /**
+     * The code generation mode, {@link #CODEGEN_DISPATCHER} generates one dispatcher per target
+     * class instead of one subscriber class per method, and flattens the subscriptions of
+     * superclasses into it where their methods can be called.
+     */
+    public static final String OPTION_EVENT_BUS_CODEGEN = "eventBusCodegen";
+    public static final String CODEGEN_DISPATCHER = "dispatcher";
+    /**
+     * The fully qualified name of the tag table to generate, no tag table if absent. The IDs of
+     * the table are only valid within the build which generated it, see {@link BindingTags}.
+     */
+    public static final String OPTION_EVENT_BUS_TAGS = "eventBusTags";
 
     private Elements elementUtils;
     private Filer filer;
+    private String indexClass;
+    private boolean indexWritten;
+    private String tagsClass;
+    private boolean tagsWritten;
+    private boolean dispatcher;
 
     @Override
     public synchronized void init(ProcessingEnvironment env) {
@@ -73,12 +103,27 @@ public class EventSubscriberProcessor extends AbstractProcessor {
 
         elementUtils = env.getElementUtils();
         filer = env.getFiler();
+        indexClass = env.getOptions().get(OPTION_EVENT_BUS_INDEX);
+        tagsClass = env.getOptions().get(OPTION_EVENT_BUS_TAGS);
+        dispatcher = CODEGEN_DISPATCHER.equals(env.getOptions().get(OPTION_EVENT_BUS_CODEGEN));
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new LinkedHashSet<>();
+        options.add(OPTION_EVENT_BUS_INDEX);
+        options.add(OPTION_EVENT_BUS_CODEGEN);
+        options.add(OPTION_EVENT_BUS_TAGS);
+
+        return options;
     }
 
     @Override
     public Set<String> getSupportedAnnotationTypes() {
         Set<String> types = new LinkedHashSet<>();
         types.add(Subscribe.class.getCanonicalName());
+        types.add(Poster.class.getCanonicalName());
+        types.add(Post.class.getCanonicalName());
 
         return types;
     }
@@ -91,6 +136,21 @@ public class EventSubscriberProcessor extends AbstractProcessor {
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         Map<TypeElement, BindingClass> targetClassMap = findSubscribeAnnotation(roundEnv);
+        if (indexClass != null && !targetClassMap.isEmpty()) {
+            writeIndex(targetClassMap);
+        }
+
+        Map<Element, BindingPoster> posterMap = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Poster.class)) {
+            BindingPoster bindingPoster = parsePosterAnnotation(element);
+            if (bindingPoster != null) {
+                posterMap.put(element, bindingPoster);
+            }
+        }
+        if (tagsClass != null && (!targetClassMap.isEmpty() || !posterMap.isEmpty())) {
+            writeTags(targetClassMap, posterMap);
+        }
+
         for (Map.Entry<TypeElement, BindingClass> entry : targetClassMap.entrySet()) {
             TypeElement typeElement = entry.getKey();
             BindingClass bindingClass = entry.getValue();
@@ -116,6 +176,197 @@ public class EventSubscriberProcessor extends AbstractProcessor {
             }
         }
 
+        for (Map.Entry<Element, BindingPoster> entry : posterMap.entrySet()) {
+            writePoster(entry.getKey(), entry.getValue());
+        }
+
+        return true;
+    }
+
+    private void writeTags(Map<TypeElement, BindingClass> targetClassMap,
+                           Map<Element, BindingPoster> posterMap) {
+        if (tagsWritten) {
+            Set<Element> elements = new LinkedHashSet<Element>(targetClassMap.keySet());
+            elements.addAll(posterMap.keySet());
+            for (Element element : elements) {
+                warning(element, "Tags found in a later round are not in the tag table %s.",
+                        tagsClass);
+            }
+            return;
+        }
+
+        BindingTags bindingTags = new BindingTags(tagsClass);
+        for (BindingClass bindingClass : targetClassMap.values()) {
+            for (String tag : bindingClass.getTags()) {
+                bindingTags.addTag(tag);
+            }
+        }
+        for (BindingPoster bindingPoster : posterMap.values()) {
+            for (String tag : bindingPoster.getTags()) {
+                bindingTags.addTag(tag);
+            }
+        }
+
+        Writer writer = null;
+        try {
+            JavaFileObject jfo = filer.createSourceFile(bindingTags.getTagsClassName());
+            writer = jfo.openWriter();
+            bindingTags.brewJava().writeTo(writer);
+            writer.flush();
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(ERROR, String.format(
+                    "Unable to write tag table %s: %s", tagsClass, e.getMessage()));
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        tagsWritten = true;
+    }
+
+    private BindingPoster parsePosterAnnotation(Element element) {
+        if (element.getKind() != ElementKind.INTERFACE) {
+            error(element, "@%s annotation must be on an interface.", Poster.class.getSimpleName());
+            return null;
+        }
+
+        TypeElement typeElement = (TypeElement) element;
+        String qualifiedName = typeElement.getQualifiedName().toString();
+        if (qualifiedName.startsWith(ANDROID_PREFIX) || qualifiedName.startsWith(JAVA_PREFIX)) {
+            error(element, "@%s-annotated interface incorrectly in framework package. (%s)",
+                    Poster.class.getSimpleName(), qualifiedName);
+            return null;
+        }
+        String packageName = getPackageName(typeElement);
+        if (!isVisibleFrom(typeElement, packageName)) {
+            error(element, "@%s interface may not be private. (%s)",
+                    Poster.class.getSimpleName(), qualifiedName);
+            return null;
+        }
+        if (!typeElement.getTypeParameters().isEmpty()) {
+            error(element, "Generic @%s interface is not support. (%s)",
+                    Poster.class.getSimpleName(), qualifiedName);
+            return null;
+        }
+
+        BindingPoster bindingPoster = new BindingPoster(packageName,
+                getClassName(typeElement, packageName) + POSTER_SUFFIX,
+                ClassName.get(typeElement));
+        boolean valid = true;
+        for (ExecutableElement method :
+                ElementFilter.methodsIn(elementUtils.getAllMembers(typeElement))) {
+            if (!method.getModifiers().contains(ABSTRACT)) {
+                continue;
+            }
+
+            Post post = method.getAnnotation(Post.class);
+            if (post == null) {
+                error(method, "@%s interface methods must be annotated with @%s. (%s.%s)",
+                        Poster.class.getSimpleName(), Post.class.getSimpleName(), qualifiedName,
+                        method.getSimpleName());
+                valid = false;
+            } else if (method.getReturnType().getKind() != TypeKind.VOID) {
+                error(method, "@%s methods must return void. (%s.%s)",
+                        Post.class.getSimpleName(), qualifiedName, method.getSimpleName());
+                valid = false;
+            } else if (BindingTags.isPattern(post.tag())) {
+                error(method, "@%s tag must not be a pattern: \"%s\". (%s.%s)",
+                        Post.class.getSimpleName(), post.tag(), qualifiedName,
+                        method.getSimpleName());
+                valid = false;
+            } else {
+                bindingPoster.addPostMethod(method, post.tag());
+            }
+        }
+
+        return valid ? bindingPoster : null;
+    }
+
+    private void writePoster(Element element, BindingPoster bindingPoster) {
+        Writer writer = null;
+        try {
+            JavaFileObject jfo =
+                    filer.createSourceFile(bindingPoster.getPosterClassName(), element);
+            writer = jfo.openWriter();
+            bindingPoster.brewJava().writeTo(writer);
+            writer.flush();
+        } catch (IOException e) {
+            error(element, "Unable to write poster for type %s: %s", element, e.getMessage());
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void writeIndex(Map<TypeElement, BindingClass> targetClassMap) {
+        if (indexWritten) {
+            for (TypeElement typeElement : targetClassMap.keySet()) {
+                warning(typeElement, "Subscribers found in a later round are not in the index %s.",
+                        indexClass);
+            }
+            return;
+        }
+
+        BindingIndex index = new BindingIndex(indexClass);
+        for (Map.Entry<TypeElement, BindingClass> entry : targetClassMap.entrySet()) {
+            TypeElement typeElement = entry.getKey();
+            if (isVisibleFrom(typeElement, index.getClassPackage())) {
+                index.addBindingClass(entry.getValue());
+            } else {
+                warning(typeElement, "%s is not visible from the index %s, it will be looked up " +
+                        "by reflection.", typeElement.getQualifiedName(), indexClass);
+            }
+        }
+
+        Writer writer = null;
+        try {
+            JavaFileObject jfo = filer.createSourceFile(index.getIndexClassName());
+            writer = jfo.openWriter();
+            index.brewJava().writeTo(writer);
+            writer.flush();
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(ERROR, String.format(
+                    "Unable to write subscriber index %s: %s", indexClass, e.getMessage()));
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        indexWritten = true;
+    }
+
+    /**
+     * Returns whether the given type can be referenced from the given package.
+     */
+    private boolean isVisibleFrom(TypeElement typeElement, String packageName) {
+        boolean samePackage = getPackageName(typeElement).equals(packageName);
+        Element element = typeElement;
+        while (element.getKind().isClass() || element.getKind().isInterface()) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(PRIVATE)) {
+                return false;
+            }
+            if (!samePackage && !modifiers.contains(PUBLIC)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+
         return true;
     }
 
@@ -135,9 +386,22 @@ public class EventSubscriberProcessor extends AbstractProcessor {
         }
 
         for (Map.Entry<TypeElement, BindingClass> entry : targetClassMap.entrySet()) {
-            String parentClass = findParent(entry.getKey(), erasedTargetNames);
-            if (parentClass != null) {
-                entry.getValue().setParentBindingClass(parentClass + SUFFIX);
+            BindingClass bindingClass = entry.getValue();
+            bindingClass.setDispatcher(dispatcher);
+
+            TypeElement parent = entry.getKey();
+            while ((parent = findParent(parent, erasedTargetNames)) != null) {
+                BindingClass parentBinding = targetClassMap.get(parent);
+                if (dispatcher && parentBinding != null
+                        && parentBinding.isCallableFrom(bindingClass.getClassPackage())) {
+                    bindingClass.addFlattenedParent(parentBinding);
+                    continue;
+                }
+
+                String packageName = getPackageName(parent);
+                bindingClass.setParentBindingClass(
+                        packageName + "." + getClassName(parent, packageName) + SUFFIX);
+                break;
             }
         }
 
@@ -224,7 +488,9 @@ public class EventSubscriberProcessor extends AbstractProcessor {
 
         BindingClass bindingClass = getOrCreateTargetClass(targetClassMap, enclosingElement);
         BindingMethod method = new BindingMethod(executableElement.getSimpleName().toString(),
-                tagParam, parametersType, executableElement.toString(), tags, mode);
+                tagParam, parametersType, executableElement.toString(), tags, mode,
+                isPublicApi(executableElement),
+                executableElement.getReturnType().getKind() != TypeKind.VOID);
         bindingClass.addBindingMethod(method);
 
         erasedTargetNames.add(enclosingElement.toString());
@@ -244,7 +510,7 @@ public class EventSubscriberProcessor extends AbstractProcessor {
         return bindingClass;
     }
 
-    private String findParent(TypeElement typeElement, Set<String> parents) {
+    private TypeElement findParent(TypeElement typeElement, Set<String> parents) {
         TypeMirror type;
         while (true) {
             type = typeElement.getSuperclass();
@@ -257,7 +523,7 @@ public class EventSubscriberProcessor extends AbstractProcessor {
                 return null;
 
             if (parents.contains(typeElement.toString()) || hasEventBusAnnotation(typeElement)) {
-                return packageName + "." + getClassName(typeElement, packageName);
+                return typeElement;
             }
         }
     }
@@ -285,6 +551,29 @@ public class EventSubscriberProcessor extends AbstractProcessor {
         return elementUtils.getPackageOf(type).getQualifiedName().toString();
     }
 
+    private boolean isPublicApi(ExecutableElement method) {
+        if (!method.getModifiers().contains(PUBLIC)) {
+            return false;
+        }
+        for (VariableElement parameter : method.getParameters()) {
+            TypeMirror type = parameter.asType();
+            while (type.getKind() == TypeKind.ARRAY) {
+                type = ((ArrayType) type).getComponentType();
+            }
+            if (type.getKind() == TypeKind.DECLARED) {
+                Element element = ((DeclaredType) type).asElement();
+                while (element.getKind().isClass() || element.getKind().isInterface()) {
+                    if (!element.getModifiers().contains(PUBLIC)) {
+                        return false;
+                    }
+                    element = element.getEnclosingElement();
+                }
+            }
+        }
+
+        return true;
+    }
+
     private boolean isUnreachable(TypeMirror typeMirror) {
         if (typeMirror.getKind() == TypeKind.DECLARED) {
             DeclaredType declaredType = (DeclaredType) typeMirror;
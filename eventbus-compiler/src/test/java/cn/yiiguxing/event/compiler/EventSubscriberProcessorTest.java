@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.compiler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import cn.yiiguxing.event.EventBus;
+import cn.yiiguxing.event.TagTable;
+import cn.yiiguxing.event.internal.SubscribeRegister;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNotNull;
+
+public class EventSubscriberProcessorTest {
+
+    private static final Pattern TYPE_NAME =
+            Pattern.compile("public (?:class|interface) (\\w+)");
+
+    public static final List<String> RECEIVED = Collections.synchronizedList(new ArrayList<String>());
+
+    private static final String PARENT = ""
+            + "package test;\n"
+            + "import cn.yiiguxing.event.ThreadMode;\n"
+            + "import cn.yiiguxing.event.annotation.Subscribe;\n"
+            + "public class Parent {\n"
+            + "    @Subscribe(tag = {\"parent\", \"both\"}, mode = ThreadMode.POST)\n"
+            + "    public void onEvent(String s) {\n"
+            + "        " + EventSubscriberProcessorTest.class.getName() + ".RECEIVED.add(\"parent:\" + s);\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String CHILD = ""
+            + "package test;\n"
+            + "import cn.yiiguxing.event.ThreadMode;\n"
+            + "import cn.yiiguxing.event.annotation.Subscribe;\n"
+            + "public class Child extends Parent {\n"
+            + "    @Subscribe(tag = {\"child\", \"both\"}, mode = ThreadMode.POST)\n"
+            + "    @Override\n"
+            + "    public void onEvent(String s) {\n"
+            + "        " + EventSubscriberProcessorTest.class.getName() + ".RECEIVED.add(\"child:\" + s);\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String TAGS_CLASS = "test.Tags";
+
+    private static final String SUBSCRIBER = ""
+            + "package test;\n"
+            + "import cn.yiiguxing.event.annotation.Subscribe;\n"
+            + "public class Subscriber {\n"
+            + "    @Subscribe(tag = {\"user.login\", \"b\"})\n"
+            + "    void onLogin(String user) {\n"
+            + "    }\n"
+            + "    @Subscribe(tag = {\"net.*\", \"\"})\n"
+            + "    void onNet(String tag) {\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String POSTER = ""
+            + "package test;\n"
+            + "import cn.yiiguxing.event.annotation.Post;\n"
+            + "import cn.yiiguxing.event.annotation.Poster;\n"
+            + "@Poster\n"
+            + "public interface Events {\n"
+            + "    @Post(tag = \"a\")\n"
+            + "    void a(int value);\n"
+            + "    @Post(tag = \"userLogin\")\n"
+            + "    void login(String user);\n"
+            + "}\n";
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void overrideWithOtherTag_chained_subscribesAllTags() throws Exception {
+        assertEquals(Arrays.asList("child:p", "child:c", "child:b"), postToChild(null));
+    }
+
+    @Test
+    public void overrideWithOtherTag_dispatcher_subscribesSameTagsAsChained() throws Exception {
+        assertEquals(postToChild(null), postToChild(EventSubscriberProcessor.CODEGEN_DISPATCHER));
+    }
+
+    @Test
+    public void tagTable_assignsIdsBySortedTags() throws Exception {
+        ClassLoader loader = compile(null, SUBSCRIBER, POSTER);
+        Class<?> tags = loader.loadClass(TAGS_CLASS);
+
+        assertArrayEquals(new String[]{"", "a", "b", "user.login", "userLogin"},
+                ((TagTable) tags.newInstance()).getTags());
+        assertEquals(0, tags.getField("DEFAULT").getInt(null));
+        assertEquals(1, tags.getField("A").getInt(null));
+        assertEquals(2, tags.getField("B").getInt(null));
+        assertEquals(3, tags.getField("USER_LOGIN").getInt(null));
+        assertEquals(4, tags.getField("USER_LOGIN_4").getInt(null));
+    }
+
+    @Test
+    public void tagTable_idsDoNotDependOnSourceOrder() throws Exception {
+        String[] forward = ((TagTable) compile(null, SUBSCRIBER, POSTER)
+                .loadClass(TAGS_CLASS).newInstance()).getTags();
+        String[] backward = ((TagTable) compile(null, POSTER, SUBSCRIBER)
+                .loadClass(TAGS_CLASS).newInstance()).getTags();
+
+        assertArrayEquals(forward, backward);
+    }
+
+    /**
+     * Compiles the parent and the child with the given code generation mode, registers a child
+     * and posts to each tag.
+     */
+    private List<String> postToChild(String codegen) throws Exception {
+        ClassLoader loader = compile(codegen, PARENT, CHILD);
+        Object child = loader.loadClass("test.Child").newInstance();
+        @SuppressWarnings("unchecked")
+        SubscribeRegister<Object> register = (SubscribeRegister<Object>)
+                loader.loadClass("test.Child" + EventSubscriberProcessor.SUFFIX).newInstance();
+
+        EventBus bus = new EventBus.Builder("test").create();
+        register.register(bus, child);
+
+        RECEIVED.clear();
+        bus.post("parent", "p");
+        bus.post("child", "c");
+        bus.post("both", "b");
+
+        return new ArrayList<>(RECEIVED);
+    }
+
+    private ClassLoader compile(String codegen, String... sources) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeNotNull(compiler);
+
+        File sourceDir = mFolder.newFolder();
+        File classDir = mFolder.newFolder();
+        List<File> files = new ArrayList<>();
+        for (String source : sources) {
+            Matcher name = TYPE_NAME.matcher(source);
+            assertTrue(name.find());
+            File file = new File(sourceDir, name.group(1) + ".java");
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                writer.write(source);
+            } finally {
+                writer.close();
+            }
+            files.add(file);
+        }
+
+        List<String> options = new ArrayList<>(Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", classDir.getPath(),
+                "-A" + EventSubscriberProcessor.OPTION_EVENT_BUS_TAGS + "=" + TAGS_CLASS));
+        if (codegen != null) {
+            options.add("-A" + EventSubscriberProcessor.OPTION_EVENT_BUS_CODEGEN + "=" + codegen);
+        }
+
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options,
+                    null, fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(Collections.singletonList(new EventSubscriberProcessor()));
+            assertTrue("Compilation failed.", task.call());
+        } finally {
+            fileManager.close();
+        }
+
+        return new URLClassLoader(new URL[]{classDir.toURI().toURL()},
+                getClass().getClassLoader());
+    }
+
+}
@@ -0,0 +1,565 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Channel
+ * <p/>
+ * A handle bound to one tag of an {@link EventBus}, obtained with
+ * {@link EventBus#getChannel(String)}. The event bus keeps the route of the tag up to date in
+ * the channel, and the channel remembers the subscriptions resolved for the last shape posted
+ * through it, so posting to a channel skips the tag lookup and, as long as the shape of the
+ * data does not change, the shape lookup. Posts to a tag without subscriptions return before
+ * an event is obtained, unless the event bus has a dead event sink. The fixed arity methods fill a buffer owned by the
+ * pooled event instead of allocating a data array per post.
+ * <p/>
+ * Generated posters, see {@link EventBus#createPoster(Class)}, post through channels. The
+ * parameter types of their methods are known at compile time, so each method posts with its
+ * {@link Shape}, whose subscriptions are resolved once per route instead of being matched
+ * against the data of every event.
+ */
+public final class Channel {
+
+    private final EventBus mBus;
+    private final String mTag;
+
+    /**
+     * Current route of the tag, <code>null</code> if the tag has no subscription. Written by the
+     * event bus while holding the lock of its routes.
+     */
+    volatile Route route;
+
+    private volatile Resolved mResolved;
+
+    /**
+     * The shapes created for this channel, see {@link #shape(Class[])}. Guarded by its lock.
+     */
+    private final List<Shape> mShapes = new ArrayList<>();
+
+    Channel(EventBus bus, String tag, Route route) {
+        this.mBus = bus;
+        this.mTag = tag;
+        this.route = route;
+    }
+
+    /**
+     * Returns the tag of this channel.
+     */
+    @NonNull
+    public String getTag() {
+        return mTag;
+    }
+
+    /**
+     * Posts an event without data.
+     */
+    public void post() {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        mBus.post(Event.obtainBuffered(mBus, mTag, 0), this);
+    }
+
+    /**
+     * Posts an event carrying the given data.
+     */
+    public void post(Object data) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        Event event = Event.obtainBuffered(mBus, mTag, 1);
+        Object[] buffer = event.getRawData();
+        buffer[0] = data;
+        mBus.post(event, this);
+    }
+
+    /**
+     * Posts an event carrying the given data.
+     */
+    public void post(Object data0, Object data1) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        Event event = Event.obtainBuffered(mBus, mTag, 2);
+        Object[] buffer = event.getRawData();
+        buffer[0] = data0;
+        buffer[1] = data1;
+        mBus.post(event, this);
+    }
+
+    /**
+     * Posts an event carrying the given data.
+     */
+    public void post(Object data0, Object data1, Object data2) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        Event event = Event.obtainBuffered(mBus, mTag, 3);
+        Object[] buffer = event.getRawData();
+        buffer[0] = data0;
+        buffer[1] = data1;
+        buffer[2] = data2;
+        mBus.post(event, this);
+    }
+
+    /**
+     * Posts an event carrying the given data.
+     */
+    public void post(Object data0, Object data1, Object data2, Object data3) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        Event event = Event.obtainBuffered(mBus, mTag, 4);
+        Object[] buffer = event.getRawData();
+        buffer[0] = data0;
+        buffer[1] = data1;
+        buffer[2] = data2;
+        buffer[3] = data3;
+        mBus.post(event, this);
+    }
+
+    /**
+     * Posts an event carrying the given data, the array is used as is.
+     */
+    public void post(Object... data) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        mBus.post(Event.obtain(mBus, mTag, data), this);
+    }
+
+    /**
+     * Posts an event carrying an <code>int</code> without boxing it.
+     */
+    public void post(int value) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        mBus.post(Event.obtain(mBus, mTag, value), this);
+    }
+
+    /**
+     * Posts an event carrying a <code>long</code> without boxing it.
+     */
+    public void post(long value) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        mBus.post(Event.obtain(mBus, mTag, value), this);
+    }
+
+    /**
+     * Posts an event carrying a <code>double</code> without boxing it.
+     */
+    public void post(double value) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        mBus.post(Event.obtain(mBus, mTag, value), this);
+    }
+
+    /**
+     * Posts an event carrying a <code>float</code> without boxing it.
+     */
+    public void post(float value) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        mBus.post(Event.obtain(mBus, mTag, value), this);
+    }
+
+    /**
+     * Posts an event carrying a <code>boolean</code> without boxing it.
+     */
+    public void post(boolean value) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        mBus.post(Event.obtain(mBus, mTag, value), this);
+    }
+
+    /**
+     * Posts an event carrying a <code>char</code> without boxing it.
+     */
+    public void post(char value) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        mBus.post(Event.obtain(mBus, mTag, value), this);
+    }
+
+    /**
+     * Posts an event carrying a <code>short</code> without boxing it.
+     */
+    public void post(short value) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        mBus.post(Event.obtain(mBus, mTag, value), this);
+    }
+
+    /**
+     * Posts an event carrying a <code>byte</code> without boxing it.
+     */
+    public void post(byte value) {
+        if (route == null && !mBus.hasDeadEventSink()) {
+            return;
+        }
+
+        mBus.post(Event.obtain(mBus, mTag, value), this);
+    }
+
+    /**
+     * Returns the shape of the events carrying data of the given types, which posts them
+     * through this channel. The channel keeps the subscriptions resolved for each of its
+     * shapes until the route of its tag changes. Only shapes whose types are primitive or final
+     * classes, or arrays of them, are resolved ahead, the data of the other shapes is matched
+     * on every post like the data of any event.
+     *
+     * @param types the types of the data, in order.
+     */
+    @NonNull
+    public Shape shape(@NonNull Class<?>... types) {
+        synchronized (mShapes) {
+            for (Shape shape : mShapes) {
+                if (Arrays.equals(shape.types, types)) {
+                    return shape;
+                }
+            }
+
+            Shape shape = new Shape(this, types.clone());
+            mShapes.add(shape);
+            return shape;
+        }
+    }
+
+    /**
+     * Returns the subscriptions which can receive the given event, or <code>null</code> if the
+     * tag has no subscription.
+     *
+     * @param event the event posted through this channel.
+     * @param probe the shape used as lookup key on a miss, it will be overwritten.
+     */
+    Subscription[] resolve(Event event, EventShape probe) {
+        Route route = this.route;
+        if (route == null) {
+            return null;
+        }
+
+        Resolved resolved = mResolved;
+        if (resolved != null && resolved.route == route && resolved.shape.matches(event)) {
+            return resolved.subscriptions;
+        }
+
+        Subscription[] subscriptions = route.resolve(event, probe);
+        mResolved = new Resolved(route, probe.copy(), subscriptions);
+
+        return subscriptions;
+    }
+
+    @Override
+    public String toString() {
+        return "Channel{" +
+                "mBus=" + mBus +
+                ", mTag='" + mTag + '\'' +
+                '}';
+    }
+
+    /**
+     * The shape of the data of the events posted through a channel by a generated poster
+     * method, see {@link #shape(Class[])}. The data posted with a shape must have its types,
+     * boxed if they are primitive and posted along with other data.
+     */
+    public static final class Shape {
+        final Channel channel;
+        final Class<?>[] types;
+        /**
+         * Whether all data of this shape has exactly its types, so all of its events are
+         * accepted by the same subscriptions.
+         */
+        final boolean exact;
+
+        private volatile Resolved mResolved;
+
+        Shape(Channel channel, Class<?>[] types) {
+            this.channel = channel;
+            this.types = types;
+            this.exact = isExact(types);
+        }
+
+        private static boolean isExact(Class<?>[] types) {
+            for (Class<?> type : types) {
+                while (type.isArray()) {
+                    type = type.getComponentType();
+                }
+                if (!type.isPrimitive() && !Modifier.isFinal(type.getModifiers())) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Posts an event without data.
+         */
+        public void post() {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            post(Event.obtainBuffered(channel.mBus, channel.mTag, 0), 0, true);
+        }
+
+        /**
+         * Posts an event carrying the given data.
+         */
+        public void post(Object data) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            Event event = Event.obtainBuffered(channel.mBus, channel.mTag, 1);
+            Object[] buffer = event.getRawData();
+            buffer[0] = data;
+            post(event, 1, data != null);
+        }
+
+        /**
+         * Posts an event carrying the given data.
+         */
+        public void post(Object data0, Object data1) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            Event event = Event.obtainBuffered(channel.mBus, channel.mTag, 2);
+            Object[] buffer = event.getRawData();
+            buffer[0] = data0;
+            buffer[1] = data1;
+            post(event, 2, data0 != null && data1 != null);
+        }
+
+        /**
+         * Posts an event carrying the given data.
+         */
+        public void post(Object data0, Object data1, Object data2) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            Event event = Event.obtainBuffered(channel.mBus, channel.mTag, 3);
+            Object[] buffer = event.getRawData();
+            buffer[0] = data0;
+            buffer[1] = data1;
+            buffer[2] = data2;
+            post(event, 3, data0 != null && data1 != null && data2 != null);
+        }
+
+        /**
+         * Posts an event carrying the given data.
+         */
+        public void post(Object data0, Object data1, Object data2, Object data3) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            Event event = Event.obtainBuffered(channel.mBus, channel.mTag, 4);
+            Object[] buffer = event.getRawData();
+            buffer[0] = data0;
+            buffer[1] = data1;
+            buffer[2] = data2;
+            buffer[3] = data3;
+            post(event, 4, data0 != null && data1 != null && data2 != null && data3 != null);
+        }
+
+        /**
+         * Posts an event carrying the given data, the array is used as is.
+         */
+        public void post(Object... data) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            boolean nonNull = true;
+            int length = data == null ? 0 : data.length;
+            for (int i = 0; i < length && nonNull; i++) {
+                nonNull = data[i] != null;
+            }
+            post(Event.obtain(channel.mBus, channel.mTag, data), length, nonNull);
+        }
+
+        /**
+         * Posts an event carrying an <code>int</code>.
+         */
+        public void post(int value) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            post(Event.obtain(channel.mBus, channel.mTag, value), 1, true);
+        }
+
+        /**
+         * Posts an event carrying a <code>long</code>.
+         */
+        public void post(long value) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            post(Event.obtain(channel.mBus, channel.mTag, value), 1, true);
+        }
+
+        /**
+         * Posts an event carrying a <code>double</code>.
+         */
+        public void post(double value) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            post(Event.obtain(channel.mBus, channel.mTag, value), 1, true);
+        }
+
+        /**
+         * Posts an event carrying a <code>float</code>.
+         */
+        public void post(float value) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            post(Event.obtain(channel.mBus, channel.mTag, value), 1, true);
+        }
+
+        /**
+         * Posts an event carrying a <code>boolean</code>.
+         */
+        public void post(boolean value) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            post(Event.obtain(channel.mBus, channel.mTag, value), 1, true);
+        }
+
+        /**
+         * Posts an event carrying a <code>char</code>.
+         */
+        public void post(char value) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            post(Event.obtain(channel.mBus, channel.mTag, value), 1, true);
+        }
+
+        /**
+         * Posts an event carrying a <code>short</code>.
+         */
+        public void post(short value) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            post(Event.obtain(channel.mBus, channel.mTag, value), 1, true);
+        }
+
+        /**
+         * Posts an event carrying a <code>byte</code>.
+         */
+        public void post(byte value) {
+            if (channel.route == null && !channel.mBus.hasDeadEventSink()) {
+                return;
+            }
+
+            post(Event.obtain(channel.mBus, channel.mTag, value), 1, true);
+        }
+
+        /**
+         * Posts the given event with the subscriptions resolved for this shape. Events with
+         * <code>null</code> data, which no typed parameter accepts, and shapes which are not
+         * resolved ahead are matched like any other event.
+         */
+        private void post(Event event, int arity, boolean nonNull) {
+            if (nonNull && exact && types.length == arity) {
+                channel.mBus.post(event, resolve(event));
+            } else {
+                channel.mBus.post(event, channel);
+            }
+        }
+
+        /**
+         * Returns the subscriptions which can receive the events of this shape, resolved with
+         * the given event once per route of the channel.
+         */
+        Subscription[] resolve(Event event) {
+            Route route = channel.route;
+            if (route == null) {
+                return null;
+            }
+
+            Resolved resolved = mResolved;
+            if (resolved != null && resolved.route == route) {
+                return resolved.subscriptions;
+            }
+
+            Subscription[] subscriptions = route.match(event);
+            mResolved = new Resolved(route, null, subscriptions);
+
+            return subscriptions;
+        }
+
+        @Override
+        public String toString() {
+            return "Shape" + Arrays.toString(types);
+        }
+    }
+
+    /**
+     * The subscriptions of a route resolved for one shape.
+     */
+    private static final class Resolved {
+        final Route route;
+        final EventShape shape;
+        final Subscription[] subscriptions;
+
+        Resolved(Route route, EventShape shape, Subscription[] subscriptions) {
+            this.route = route;
+            this.shape = shape;
+            this.subscriptions = subscriptions;
+        }
+    }
+}
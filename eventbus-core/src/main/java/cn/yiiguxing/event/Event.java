@@ -0,0 +1,412 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Event
+ * <p/>
+ * Created by Yii.Guxing on 16/1/27.
+ */
+public class Event {
+
+    private static final AtomicIntegerFieldUpdater<Event> IN_USE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(Event.class, "mInUse");
+
+    private EventBus mTarget;
+
+    private String mTag;
+    private Object[] mData;
+    /**
+     * Type of the primitive data, <code>null</code> if the event carries no primitive data.
+     */
+    private Class<?> mPrimitiveType;
+    /**
+     * Bits of the primitive data, see {@link #obtainPrimitive(EventBus, String, Class, long)}.
+     */
+    private long mPrimitiveBits;
+    /**
+     * Data buffer owned by this instance, kept across recycling, see
+     * {@link #obtainBuffered(EventBus, String, int)}.
+     */
+    private Object[] mBuffer;
+    /**
+     * Completion of the post, <code>null</code> if the event is not posted with
+     * {@link EventBus#postAsync(String, Object...)}.
+     */
+    private PostFuture mFuture;
+
+    private volatile boolean mRecycled;
+    /**
+     * Use count, updated through {@link #IN_USE_UPDATER}.
+     */
+    private volatile int mInUse;
+
+    @NonNull
+    private static Event acquire(EventBus target) {
+        Event e = target == null ? null : target.getEventPool().obtain();
+        if (e == null) {
+            return new Event();
+        }
+
+        e.mInUse = 0;
+        e.mRecycled = false;
+
+        return e;
+    }
+
+    @NonNull
+    public static Event obtain(Event orig) {
+        if (orig.mPrimitiveType != null) {
+            return obtainPrimitive(orig.mTarget, orig.mTag, orig.mPrimitiveType,
+                    orig.mPrimitiveBits);
+        }
+
+        // The buffer of the original is cleared when it is recycled.
+        Object[] data = orig.mData;
+        if (data != null && data == orig.mBuffer) {
+            data = data.clone();
+        }
+
+        return obtain(orig.mTarget, orig.mTag, data);
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target) {
+        return obtain(target, EventBus.DEFAULT_TAG, (Object[]) null);
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target, Object... data) {
+        return obtain(target, EventBus.DEFAULT_TAG, data);
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target, String tag, Object... data) {
+        Event event = acquire(target);
+        event.mTarget = target;
+        event.mTag = tag;
+        event.mData = data;
+
+        return event;
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target, String tag, int value) {
+        return obtainPrimitive(target, tag, int.class, value);
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target, String tag, long value) {
+        return obtainPrimitive(target, tag, long.class, value);
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target, String tag, double value) {
+        return obtainPrimitive(target, tag, double.class, Double.doubleToRawLongBits(value));
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target, String tag, float value) {
+        return obtainPrimitive(target, tag, float.class, Float.floatToRawIntBits(value));
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target, String tag, boolean value) {
+        return obtainPrimitive(target, tag, boolean.class, value ? 1 : 0);
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target, String tag, char value) {
+        return obtainPrimitive(target, tag, char.class, value);
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target, String tag, short value) {
+        return obtainPrimitive(target, tag, short.class, value);
+    }
+
+    @NonNull
+    public static Event obtain(EventBus target, String tag, byte value) {
+        return obtainPrimitive(target, tag, byte.class, value);
+    }
+
+    /**
+     * Obtains an event carrying a single primitive value without boxing it.
+     *
+     * @param type the primitive type.
+     * @param bits the value: integral types and <code>char</code> widened to <code>long</code>,
+     *             <code>boolean</code> as 1 or 0, <code>float</code> and <code>double</code> as
+     *             their raw bits.
+     */
+    @NonNull
+    private static Event obtainPrimitive(EventBus target, String tag, Class<?> type, long bits) {
+        Event event = acquire(target);
+        event.mTarget = target;
+        event.mTag = tag;
+        event.mPrimitiveType = type;
+        event.mPrimitiveBits = bits;
+
+        return event;
+    }
+
+    /**
+     * Obtains an event whose data is a buffer of the given length owned by the event, the
+     * caller fills it before posting. The buffer is cleared when the event is recycled and
+     * reused by the next event obtained with the same length, so no array is allocated per post.
+     */
+    @NonNull
+    static Event obtainBuffered(EventBus target, String tag, int length) {
+        Event event = acquire(target);
+        Object[] buffer = event.mBuffer;
+        if (buffer == null || buffer.length != length) {
+            buffer = new Object[length];
+            event.mBuffer = buffer;
+        }
+
+        event.mTarget = target;
+        event.mTag = tag;
+        event.mData = buffer;
+
+        return event;
+    }
+
+    private Event() {
+    }
+
+    public Event(@NonNull EventBus target) {
+        this(target, null, (Object[]) null);
+    }
+
+    public Event(@NonNull EventBus target, String tag, Object... data) {
+        this.mTarget = target;
+        this.mTag = tag;
+        this.mData = data;
+    }
+
+    public final EventBus getTarget() {
+        return mTarget;
+    }
+
+    @Nullable
+    public String getTag() {
+        return mTag;
+    }
+
+    public void setTag(String tag) {
+        if (isInUse()) {
+            throw new IllegalStateException(
+                    "Cannot change tag because this event is still in use.");
+        }
+
+        mTag = tag;
+    }
+
+    /**
+     * Returns the event data. The primitive data of events obtained with a primitive value is
+     * boxed on the first call.
+     */
+    @Nullable
+    public Object[] getData() {
+        Object[] data = mData;
+        if (data == null && mPrimitiveType != null) {
+            data = new Object[]{boxPrimitive()};
+            mData = data;
+        }
+
+        return data;
+    }
+
+    public void setData(Object... data) {
+        if (isInUse()) {
+            throw new IllegalStateException(
+                    "Cannot change data because this event is still in use.");
+        }
+
+        mData = data;
+        mPrimitiveType = null;
+    }
+
+    /**
+     * Returns the type of the primitive data, or <code>null</code> if this event was not obtained
+     * with a primitive value.
+     */
+    @Nullable
+    public Class<?> getPrimitiveType() {
+        return mPrimitiveType;
+    }
+
+    public int getInt() {
+        return (int) mPrimitiveBits;
+    }
+
+    public long getLong() {
+        return mPrimitiveBits;
+    }
+
+    public double getDouble() {
+        return Double.longBitsToDouble(mPrimitiveBits);
+    }
+
+    public float getFloat() {
+        return Float.intBitsToFloat((int) mPrimitiveBits);
+    }
+
+    public boolean getBoolean() {
+        return mPrimitiveBits != 0;
+    }
+
+    public char getChar() {
+        return (char) mPrimitiveBits;
+    }
+
+    public short getShort() {
+        return (short) mPrimitiveBits;
+    }
+
+    public byte getByte() {
+        return (byte) mPrimitiveBits;
+    }
+
+    private Object boxPrimitive() {
+        Class<?> type = mPrimitiveType;
+        if (type == int.class) return getInt();
+        if (type == long.class) return getLong();
+        if (type == double.class) return getDouble();
+        if (type == float.class) return getFloat();
+        if (type == boolean.class) return getBoolean();
+        if (type == char.class) return getChar();
+        if (type == short.class) return getShort();
+        return getByte();
+    }
+
+    /**
+     * Returns the data without boxing primitive data.
+     */
+    Object[] getRawData() {
+        return mData;
+    }
+
+    /**
+     * Returns the length of the data without boxing primitive data.
+     */
+    int getDataLength() {
+        if (mPrimitiveType != null) {
+            return 1;
+        }
+
+        return mData == null ? 0 : mData.length;
+    }
+
+    boolean isInUse() {
+        return mInUse > 0;
+    }
+
+    void requestUse() {
+        IN_USE_UPDATER.incrementAndGet(this);
+    }
+
+    public boolean isRecycled() {
+        return mRecycled;
+    }
+
+    /**
+     * Post this event.
+     */
+    public void post() {
+        mTarget.post(this);
+    }
+
+    void setFuture(PostFuture future) {
+        mFuture = future;
+    }
+
+    /**
+     * Replies to this event if it is posted with {@link EventBus#postAsync(String, Object...)}
+     * or {@link EventBus#requestFirst(String, Object...)}, the reply is ignored otherwise. Generated subscribers reply with the value their method
+     * returns. May only be called while the event is being handled.
+     */
+    public void reply(@Nullable Object value) {
+        PostFuture future = mFuture;
+        if (future != null && future.addReply(value)) {
+            mTarget.cancelDelivery(this);
+        }
+    }
+
+    /**
+     * Reports a subscriber which failed to handle this event.
+     *
+     * @return <code>true</code> if the failure is collected by the future of the post, it is
+     * not thrown then.
+     */
+    boolean onDeliveryFailed(Subscriber subscriber, Throwable error) {
+        PostFuture future = mFuture;
+        if (future == null) {
+            return false;
+        }
+
+        future.addFailure(subscriber, error);
+        return true;
+    }
+
+    void requestRecycle() {
+        if (isRecycled()) {
+            throw new IllegalStateException("Event already recycled.");
+        }
+
+        int use = IN_USE_UPDATER.decrementAndGet(this);
+        if (use <= 0)
+            recycle();
+    }
+
+    void recycle() {
+        EventBus target = mTarget;
+        PostFuture future = mFuture;
+        requestUse();
+        mRecycled = true;
+        mTarget = null;
+        mTag = null;
+        if (mData != null && mData == mBuffer) {
+            Arrays.fill(mBuffer, null);
+        }
+        mData = null;
+        mPrimitiveType = null;
+        mFuture = null;
+
+        if (target != null) {
+            target.getEventPool().recycle(this);
+        }
+        if (future != null) {
+            future.complete();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Event{" +
+                "mTarget=" + mTarget +
+                ", mTag='" + mTag + '\'' +
+                ", mData=" + (mPrimitiveType != null
+                ? "[" + boxPrimitive() + "]"
+                : Arrays.toString(mData)) +
+                ", mRecycled=" + mRecycled +
+                ", mInUse=" + mInUse +
+                '}';
+    }
+}
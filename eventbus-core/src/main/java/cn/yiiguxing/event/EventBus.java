@@ -0,0 +1,1751 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import cn.yiiguxing.event.handler.AsyncEventHandler;
+import cn.yiiguxing.event.handler.BatchAsyncEventHandler;
+import cn.yiiguxing.event.handler.BatchEventHandler;
+import cn.yiiguxing.event.handler.EventHandler;
+import cn.yiiguxing.event.handler.SimpleEventHandler;
+import cn.yiiguxing.event.internal.SubscribeRegister;
+
+/**
+ * EventBus
+ * <p/>
+ * Created by Yii.Guxing on 16/1/27.
+ */
+public class EventBus {
+
+    private static final String TAG = "EventBus";
+
+    private static final String ANDROID_PREFIX = "android.";
+    private static final String JAVA_PREFIX = "java.";
+    private static final String SUFFIX = "$$SubRegister";
+    private static final String POSTER_SUFFIX = "$$Poster";
+    /**
+     * Upper bound of the tags resolved against the tag patterns and cached, see
+     * {@link #getRoute(String)}.
+     */
+    static final int MAX_PATTERN_CACHE_SIZE = 256;
+
+    /**
+     * Default event tag.
+     */
+    public static final String DEFAULT_TAG = "";
+
+    /**
+     * default descriptor
+     */
+    static final String DESCRIPTOR = "EventBus";
+    static final int DEFAULT_MAX_DATA_LENGTH = 5;
+
+    /**
+     * Class-Register map, holds the register resolved for every class looked up, including the
+     * superclasses walked on the way. Classes without a register map to {@link #NO_REGISTER}.
+     */
+    private static final ConcurrentMap<Class<?>, SubscribeRegister<Object>> REGISTER =
+            new ConcurrentHashMap<>();
+    private static final SubscribeRegister<Object> NO_REGISTER = new SubscribeRegister<Object>() {
+        @Override
+        public void register(EventBus eventBus, Object target) {
+        }
+    };
+
+    /**
+     * Contract-Constructor map of the generated posters.
+     */
+    private static final ConcurrentMap<Class<?>, Constructor<?>> POSTER =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Class-Types map, holds the flattened type hierarchy of every class posted with
+     * {@link #postByType(Object)}: the class, its superclasses, then all of their interfaces.
+     */
+    private static final ConcurrentMap<Class<?>, Class<?>[]> TYPE_HIERARCHY =
+            new ConcurrentHashMap<>();
+    /**
+     * Marks a class without type subscriptions in {@link #mResolvedTypeRoutes}.
+     */
+    private static final Route NO_ROUTE = new Route(new Subscription[0]);
+
+    private static volatile EventBus sDefaultBus;
+
+    /**
+     * Tag-Route map of the tags subscribed to or with a channel, each route also holds the
+     * subscriptions of the tag patterns matching its tag. Routes are immutable, writers replace
+     * them while holding the lock of the map, so posting threads read it without any lock.
+     */
+    private final Map<String, Route> mRoutes = new ConcurrentHashMap<>();
+    /**
+     * Tag-Route map of the tags and tag patterns subscribed to, as registered. Guarded by the
+     * lock of {@link #mRoutes}.
+     */
+    private final Map<String, Route> mTagRoutes = new HashMap<>();
+    /**
+     * The tag patterns subscribed to, see {@link TagTrie}. Guarded by the lock of
+     * {@link #mRoutes}.
+     */
+    private final TagTrie mPatterns = new TagTrie();
+    /**
+     * Whether any tag pattern is subscribed to. Tags missing from {@link #mRoutes} are only
+     * matched against the patterns if so, patterns cost nothing as long as none is used.
+     */
+    private volatile boolean mHasPatterns;
+    /**
+     * Tag-Route map of the other tags posted to which patterns match. Holds at most
+     * {@link #MAX_PATTERN_CACHE_SIZE} tags, it is cleared when full and whenever the patterns
+     * change, so dynamic tags cannot grow it without bounds.
+     */
+    private final Map<String, Route> mPatternRoutes = new ConcurrentHashMap<>();
+    /**
+     * Tags posted to which nothing subscribes and no pattern matches, bounded and cleared like
+     * {@link #mPatternRoutes}.
+     */
+    private final Set<String> mUnmatchedTags =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    /**
+     * Type-Route map of the types subscribed to, see
+     * {@link #registerForType(Subscriber, Class, ThreadMode)}. Type routes are kept apart from
+     * the tag routes, so they neither take any tag nor are matched by tag patterns. Guarded by
+     * the lock of {@link #mRoutes}.
+     */
+    private final Map<Class<?>, Route> mTypeRoutes = new HashMap<>();
+    /**
+     * Class-Route map of the classes posted with {@link #postByType(Object)}, each route merges
+     * the subscriptions of the type hierarchy of its class, see {@link #getTypeRoute(Class)}.
+     * Cleared whenever a type route changes.
+     */
+    private final Map<Class<?>, Route> mResolvedTypeRoutes = new ConcurrentHashMap<>();
+    /**
+     * Subscriber-Subscriptions map, the reverse index of {@link #mRoutes}, keyed by the
+     * {@link TargetKey} of unstable subscribers or the subscriber itself. Guarded by the lock of
+     * {@link #mRoutes}.
+     */
+    private final Map<Object, List<Subscription>> mSubscriberIndex = new HashMap<>();
+    /**
+     * Tag-Channel map, the route of every channel is published along with {@link #mRoutes}.
+     * Written while holding the lock of {@link #mRoutes}.
+     */
+    private final Map<String, Channel> mChannels = new ConcurrentHashMap<>();
+    /**
+     * ID-Channel array of the tags in the {@link TagTable} of this event bus.
+     */
+    private final Channel[] mChannelsById;
+    /**
+     * Number of subscriptions purged by the {@link SubscriptionReaper}, written while holding
+     * the lock of {@link #mRoutes}.
+     */
+    private volatile long mReclaimedCount;
+    /**
+     * Event poster for the current thread.
+     */
+    private final ThreadLocal<EventDispatcher> mEventDispatcher = new ThreadLocal<EventDispatcher>() {
+        protected EventDispatcher initialValue() {
+            return new EventDispatcher(mMaxDataLength);
+        }
+    };
+
+    private final String mDescriptor;
+    private final Platform mPlatform;
+    private final SubscriberIndex[] mIndices;
+    private final boolean mDebug;
+    private final int mMaxDataLength;
+    private final Subscriber mDeadEventSink;
+    private final EventPool mEventPool;
+
+    private final EventHandler mDefaultHandler;
+    private final EventHandler mPostThreadHandler;
+    private final EventHandler mMainThreadHandler;
+    private final EventHandler mAsyncThreadHandler;
+    /**
+     * Created lazily, see {@link #getVirtualThreadHandler()}.
+     */
+    private volatile EventHandler mVirtualThreadHandler;
+
+
+    private EventBus(Builder builder) {
+        mDescriptor = builder.descriptor;
+        mPlatform = builder.platform != null ? builder.platform : Platform.get();
+        mIndices = builder.indices.toArray(new SubscriberIndex[builder.indices.size()]);
+        mChannelsById = createChannels(builder.tagTable);
+        mDebug = builder.debug;
+        mMaxDataLength = builder.maxDataLength;
+        Subscriber sink = builder.deadEventSink;
+        mDeadEventSink = sink == null || sink instanceof UnstableSubscriber
+                ? sink
+                : new SubscriberWrapper(sink);
+        mEventPool = new EventPool(builder.eventPoolCapacity);
+        mMainThreadHandler = mPlatform.createMainThreadHandler(builder.frameBudgetMillis);
+        mPostThreadHandler = new SimpleEventHandler();
+        mDefaultHandler = builder.defaultHandler != null
+                ? builder.defaultHandler
+                : mPostThreadHandler;
+        Executor executor = builder.executor != null
+                ? builder.executor
+                : mPlatform.getDefaultAsyncExecutor();
+        mAsyncThreadHandler = builder.asyncBatchSize > 0
+                ? new BatchAsyncEventHandler(executor, builder.asyncBatchSize)
+                : new AsyncEventHandler(executor);
+    }
+
+    /**
+     * Returns the handler of {@link ThreadMode#VIRTUAL} subscribers, created once the first of
+     * them registers.
+     */
+    private EventHandler getVirtualThreadHandler() {
+        EventHandler handler = mVirtualThreadHandler;
+        if (handler == null) {
+            synchronized (mRoutes) {
+                handler = mVirtualThreadHandler;
+                if (handler == null) {
+                    Executor executor = mPlatform.getVirtualThreadExecutor();
+                    if (executor != null) {
+                        handler = new AsyncEventHandler(executor);
+                    } else {
+                        if (mDebug) mPlatform.logDebug(TAG, "No virtual threads, VIRTUAL falls back to ASYNC.");
+                        handler = mAsyncThreadHandler;
+                    }
+                    mVirtualThreadHandler = handler;
+                }
+            }
+        }
+
+        return handler;
+    }
+
+    private Channel[] createChannels(TagTable tagTable) {
+        String[] tags = tagTable == null ? new String[0] : tagTable.getTags();
+        Channel[] channels = new Channel[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            channels[i] = getChannel(tags[i]);
+        }
+
+        return channels;
+    }
+
+    /**
+     * Returns the default event bus.
+     */
+    public static EventBus getDefault() {
+        if (sDefaultBus == null) {
+            synchronized (EventBus.class) {
+                if (sDefaultBus == null) {
+                    sDefaultBus = new Builder(DESCRIPTOR).create();
+                }
+            }
+        }
+
+        return sDefaultBus;
+    }
+
+    /**
+     * Registers the given subscriber to receive events. Subscribers must call
+     * {@link #unregister(Object)} once they are no longer interested in receiving events.
+     *
+     * @see #unregister(Object)
+     */
+    public void register(@NonNull Object subscriber) {
+        if (subscriber instanceof Subscriber) {
+            register((Subscriber) subscriber);
+            return;
+        }
+
+        registerInner(subscriber);
+    }
+
+    private void registerInner(Object subscriber) {
+        Class<?> targetClass = subscriber.getClass();
+        try {
+            if (mDebug) mPlatform.logDebug(TAG, "Looking up register for " + targetClass.getName());
+            SubscribeRegister<Object> viewBinder = findSubscribeRegisterForClass(targetClass);
+            if (viewBinder != null) {
+                if (mDebug) mPlatform.logDebug(TAG, String.format("Register:%s.", subscriber));
+
+                viewBinder.register(this, subscriber);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to register subscriber for " +
+                    targetClass.getName(), e);
+        }
+    }
+
+    private SubscribeRegister<Object> findSubscribeRegisterForClass(Class<?> targetClass)
+            throws IllegalAccessException, InstantiationException {
+        SubscribeRegister<Object> register = null;
+        List<Class<?>> resolved = null;
+        for (Class<?> cls = targetClass; cls != null; cls = cls.getSuperclass()) {
+            register = REGISTER.get(cls);
+            if (register != null) {
+                if (mDebug) mPlatform.logDebug(TAG, "Cached in register map.");
+                break;
+            }
+            String clsName = cls.getName();
+            if (clsName.startsWith(ANDROID_PREFIX) || clsName.startsWith(JAVA_PREFIX)) {
+                if (mDebug) mPlatform.logDebug(TAG, "MISS: Reached framework class. Abandoning search.");
+                break;
+            }
+
+            if (resolved == null) {
+                resolved = new ArrayList<>();
+            }
+            resolved.add(cls);
+
+            register = findSubscribeRegisterInIndices(cls);
+            if (register != null) {
+                if (mDebug) mPlatform.logDebug(TAG, "Found in subscriber index.");
+                break;
+            }
+            register = loadSubscribeRegister(clsName);
+            if (register != null) {
+                if (mDebug) mPlatform.logDebug(TAG, "Loaded register class.");
+                break;
+            }
+            if (mDebug) mPlatform.logDebug(TAG, "Not found. Trying superclass " + cls.getSuperclass().getName());
+        }
+
+        if (register == null) {
+            register = NO_REGISTER;
+        }
+        if (resolved != null) {
+            for (Class<?> cls : resolved) {
+                REGISTER.putIfAbsent(cls, register);
+            }
+        }
+
+        return register != NO_REGISTER ? register : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SubscribeRegister<Object> loadSubscribeRegister(String clsName)
+            throws IllegalAccessException, InstantiationException {
+        try {
+            return (SubscribeRegister<Object>) Class.forName(clsName + SUFFIX).newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private SubscribeRegister<Object> findSubscribeRegisterInIndices(Class<?> cls) {
+        for (SubscriberIndex index : mIndices) {
+            SubscribeRegister<?> register = index.getRegister(cls);
+            if (register != null) {
+                return (SubscribeRegister<Object>) register;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Registers the given subscriber to receive events. Subscribers must call
+     * {@link #unregister(Subscriber)} once they are no longer interested in receiving events.
+     *
+     * @see #unregister(Subscriber)
+     */
+    public void register(@NonNull Subscriber subscriber) {
+        register(subscriber, DEFAULT_TAG);
+    }
+
+    /**
+     * Registers the given subscriber to receive events. Subscribers must call
+     * {@link #unregister(Subscriber)} once they are no longer interested in receiving events.
+     * <p/>
+     * The tag may be a pattern of dot separated segments, where <code>"*"</code> matches one
+     * segment and <code>"**"</code> any number of segments, e.g. <code>"net.*"</code> or
+     * <code>"net.**"</code>. Events cannot be posted to a pattern.
+     *
+     * @see #unregister(Subscriber)
+     */
+    public void register(@NonNull Subscriber subscriber, @Nullable String tag) {
+        register(subscriber, tag, ThreadMode.DEFAULT);
+    }
+
+    /**
+     * Registers the given subscriber to receive events. Subscribers must call
+     * {@link #unregister(Subscriber)} once they are no longer interested in receiving events.
+     *
+     * @see #unregister(Subscriber)
+     */
+    public void register(@NonNull Subscriber subscriber, @Nullable String tag, ThreadMode mode) {
+        register(subscriber, tag, getEventHandler(mode));
+    }
+
+    private EventHandler getEventHandler(ThreadMode mode) {
+        EventHandler handler;
+        switch (mode) {
+            case POST:
+                handler = mPostThreadHandler;
+                break;
+            case ASYNC:
+                handler = mAsyncThreadHandler;
+                break;
+            case MAIN:
+                handler = mMainThreadHandler;
+                break;
+            case VIRTUAL:
+                handler = getVirtualThreadHandler();
+                break;
+            case DEFAULT:
+            default:
+                handler = mDefaultHandler;
+                break;
+        }
+
+        return handler;
+    }
+
+    /**
+     * Registers the given subscriber to receive events. Subscribers must call
+     * {@link #unregister(Subscriber)} once they are no longer interested in receiving events.
+     *
+     * @see #unregister(Subscriber)
+     */
+    public void register(@NonNull Subscriber subscriber,
+                         @Nullable String tag,
+                         @NonNull EventHandler handler) {
+        addSubscription(subscriber, tag, null, handler);
+    }
+
+    /**
+     * Subscribes the given subscriber to the given tag, or to the given type if it is not
+     * <code>null</code>.
+     */
+    private void addSubscription(Subscriber subscriber,
+                                 String tag,
+                                 Class<?> type,
+                                 EventHandler handler) {
+        if (!(subscriber instanceof UnstableSubscriber)) {
+            subscriber = new SubscriberWrapper(subscriber);
+        }
+
+        synchronized (mRoutes) {
+            Object key = subscriberKey(subscriber);
+            if (key == null) {
+                return;
+            }
+
+            List<Subscription> indexed = mSubscriberIndex.get(key);
+            if (indexed == null) {
+                if (key instanceof TargetKey) {
+                    Object unstable = ((TargetKey) key).get();
+                    if (unstable == null) {
+                        return;
+                    }
+                    key = new TargetKey(unstable, this);
+                }
+                indexed = new ArrayList<>();
+                mSubscriberIndex.put(key, indexed);
+            } else {
+                key = indexed.get(0).key;
+            }
+
+            Object topic = type != null ? type : tag;
+            Route route = type != null ? mTypeRoutes.get(type) : mTagRoutes.get(tag);
+            Subscription newSubscription = new Subscription(subscriber, tag, type, handler, key);
+            int index = route == null ? -1 : route.indexOf(newSubscription);
+            if (index >= 0) {
+                Subscription subscription = route.subscriptions[index];
+                if (!handler.equals(subscription.eventHandler)) {
+                    publishRoute(newSubscription, route.set(index, newSubscription));
+                    indexed.set(indexed.indexOf(subscription), newSubscription);
+
+                    if (mDebug)
+                        mPlatform.logDebug(TAG, String.format("Override:tag=%s, subscriber=%s, handler=%s.", topic,
+                                subscriber, handler));
+                }
+
+                return;
+            }
+
+            if (mDebug) mPlatform.logDebug(TAG, String.format("Register:tag=%s, subscriber=%s, handler=%s.", topic,
+                    subscriber, handler));
+
+            publishRoute(newSubscription, route == null
+                    ? new Route(new Subscription[]{newSubscription})
+                    : route.add(newSubscription));
+            indexed.add(newSubscription);
+        }
+    }
+
+    /**
+     * Registers the given subscriber to receive the objects posted with
+     * {@link #postByType(Object)} whose type is the given type or a subtype of it. The data of
+     * these events is the posted object. Types are subscribed to apart from the tags, an event
+     * posted with a tag never reaches the subscribers of a type.
+     *
+     * @see #unregister(Subscriber)
+     */
+    public void registerForType(@NonNull Subscriber subscriber,
+                                @NonNull Class<?> eventType,
+                                ThreadMode mode) {
+        addSubscription(subscriber, null, eventType, getEventHandler(mode));
+    }
+
+    /**
+     * Returns the type hierarchy of the given class, computed once per class.
+     */
+    private static Class<?>[] getTypeHierarchy(Class<?> type) {
+        Class<?>[] hierarchy = TYPE_HIERARCHY.get(type);
+        if (hierarchy != null) {
+            return hierarchy;
+        }
+
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            types.add(c);
+        }
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            addInterfaces(c, types);
+        }
+
+        hierarchy = types.toArray(new Class<?>[types.size()]);
+        Class<?>[] existing = TYPE_HIERARCHY.putIfAbsent(type, hierarchy);
+        return existing != null ? existing : hierarchy;
+    }
+
+    private static void addInterfaces(Class<?> type, Set<Class<?>> types) {
+        for (Class<?> i : type.getInterfaces()) {
+            if (types.add(i)) {
+                addInterfaces(i, types);
+            }
+        }
+    }
+
+    /**
+     * Returns the key of the given subscriber in the subscriber index, or <code>null</code> if
+     * the target of the subscriber has been cleared.
+     */
+    @Nullable
+    private static Object subscriberKey(Subscriber subscriber) {
+        if (subscriber instanceof UnstableSubscriber) {
+            Object unstable = ((UnstableSubscriber) subscriber).getUnstable();
+            return unstable == null ? null : new TargetKey(unstable);
+        }
+
+        return subscriber;
+    }
+
+    /**
+     * Unregisters the given subscriber.
+     */
+    public void unregister(@NonNull Subscriber subscriber) {
+        if (!(subscriber instanceof UnstableSubscriber)) {
+            subscriber = new SubscriberWrapper(subscriber);
+        }
+
+        synchronized (mRoutes) {
+            Object key = subscriberKey(subscriber);
+            List<Subscription> indexed = key == null ? null : mSubscriberIndex.get(key);
+            if (indexed == null) {
+                return;
+            }
+
+            List<Subscription> foundSubscriptions = new ArrayList<>();
+            Iterator<Subscription> iterator = indexed.iterator();
+            while (iterator.hasNext()) {
+                Subscription subscription = iterator.next();
+                if (subscription.subscriber.equals(subscriber)) {
+                    foundSubscriptions.add(subscription);
+                    iterator.remove();
+                }
+            }
+            if (indexed.isEmpty()) {
+                mSubscriberIndex.remove(key);
+            }
+
+            removeSubscriptions(foundSubscriptions);
+            if (mDebug && !foundSubscriptions.isEmpty()) mPlatform.logDebug(TAG, "Unregister:" + subscriber);
+        }
+    }
+
+    public void unregister(@Nullable String tag) {
+        synchronized (mRoutes) {
+            Route route = mTagRoutes.get(tag);
+            if (route == null) {
+                return;
+            }
+
+            publishRoute(tag, null);
+
+            for (Subscription subscription : route.subscriptions) {
+                List<Subscription> indexed = mSubscriberIndex.get(subscription.key);
+                if (indexed != null && indexed.remove(subscription) && indexed.isEmpty()) {
+                    mSubscriberIndex.remove(subscription.key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unregisters the given subscriber from all event classes.
+     */
+    public void unregister(Object object) {
+        if (object == null)
+            return;
+
+        if (object instanceof Subscriber) {
+            unregister((Subscriber) object);
+            return;
+        }
+
+        if (object instanceof Class) {
+            throw new IllegalArgumentException("Can not unregister " + object.getClass().getName());
+        }
+
+        synchronized (mRoutes) {
+            List<Subscription> indexed = mSubscriberIndex.remove(new TargetKey(object));
+            if (indexed == null) {
+                return;
+            }
+
+            removeSubscriptions(indexed);
+        }
+
+        if (mDebug) mPlatform.logDebug(TAG, "Unregister:" + object);
+    }
+
+    /**
+     * Removes the subscriptions of the given collected targets.
+     */
+    void purge(List<TargetKey> keys) {
+        int reclaimed;
+        synchronized (mRoutes) {
+            List<Subscription> subscriptions = new ArrayList<>();
+            for (TargetKey key : keys) {
+                List<Subscription> indexed = mSubscriberIndex.remove(key);
+                if (indexed != null) {
+                    subscriptions.addAll(indexed);
+                }
+            }
+
+            removeSubscriptions(subscriptions);
+            reclaimed = subscriptions.size();
+            mReclaimedCount += reclaimed;
+        }
+
+        if (mDebug && reclaimed > 0) mPlatform.logDebug(TAG, "Purged cleared subscriptions:" + reclaimed);
+    }
+
+    /**
+     * Returns the number of subscriptions removed because their target has been collected.
+     */
+    public long getReclaimedCount() {
+        return mReclaimedCount;
+    }
+
+    /**
+     * Publishes the routes without the given subscriptions, each route affected is copied only
+     * once. Must be called while holding the lock of {@link #mRoutes}.
+     */
+    private void removeSubscriptions(List<Subscription> subscriptions) {
+        int size = subscriptions.size();
+        if (size == 0) {
+            return;
+        }
+
+        // Grouped by tag or type.
+        Map<Object, List<Subscription>> byTopic = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Subscription subscription = subscriptions.get(i);
+            Object topic = subscription.type != null ? subscription.type : subscription.tag;
+            List<Subscription> removed = byTopic.get(topic);
+            if (removed == null) {
+                removed = new ArrayList<>();
+                byTopic.put(topic, removed);
+            }
+            removed.add(subscription);
+        }
+
+        for (List<Subscription> removed : byTopic.values()) {
+            Subscription subscription = removed.get(0);
+            Route route = subscription.type != null
+                    ? mTypeRoutes.get(subscription.type)
+                    : mTagRoutes.get(subscription.tag);
+            if (route == null) {
+                continue;
+            }
+
+            Route newRoute = route.removeAll(removed);
+            if (newRoute != route) {
+                publishRoute(subscription, newRoute);
+            }
+        }
+    }
+
+    /**
+     * Publishes the route of the tag or type of the given subscription, see
+     * {@link #publishRoute(String, Route)}. Must be called while holding the lock of
+     * {@link #mRoutes}.
+     */
+    private void publishRoute(Subscription subscription, Route route) {
+        if (subscription.type == null) {
+            publishRoute(subscription.tag, route);
+            return;
+        }
+
+        if (route == null) {
+            mTypeRoutes.remove(subscription.type);
+        } else {
+            mTypeRoutes.put(subscription.type, route);
+        }
+        mResolvedTypeRoutes.clear();
+    }
+
+    /**
+     * Publishes the route of the given tag or tag pattern to the posting threads,
+     * <code>null</code> if it has no subscription left. A pattern is published to every tag it
+     * matches which has been posted to or has a channel. Must be called while holding the lock
+     * of {@link #mRoutes}.
+     */
+    private void publishRoute(String tag, Route route) {
+        if (route == null) {
+            mTagRoutes.remove(tag);
+        } else {
+            mTagRoutes.put(tag, route);
+        }
+
+        if (!TagTrie.isPattern(tag)) {
+            updateRoute(tag, resolveRoute(tag));
+            return;
+        }
+
+        mPatterns.put(tag, route);
+        mHasPatterns = !mPatterns.isEmpty();
+        mPatternRoutes.clear();
+        mUnmatchedTags.clear();
+
+        Set<String> tags = new HashSet<>(mRoutes.keySet());
+        tags.addAll(mChannels.keySet());
+        for (String t : tags) {
+            if (TagTrie.matches(tag, t)) {
+                updateRoute(t, resolveRoute(t));
+            }
+        }
+    }
+
+    private void updateRoute(String tag, Route route) {
+        // Tags only patterns subscribe to are left to the pattern cache, unless they have a
+        // channel.
+        if (route == null || !mTagRoutes.containsKey(tag) && !mChannels.containsKey(tag)) {
+            mRoutes.remove(tag);
+        } else {
+            mRoutes.put(tag, route);
+        }
+        mPatternRoutes.remove(tag);
+        mUnmatchedTags.remove(tag);
+
+        Channel channel = mChannels.get(tag);
+        if (channel != null) {
+            channel.route = route;
+        }
+    }
+
+    /**
+     * Resolves the route of the given tag with the subscriptions of the patterns which match
+     * it, a subscriber receives an event once even if several of them match. Must be called
+     * while holding the lock of {@link #mRoutes}.
+     *
+     * @return the route, <code>null</code> if the tag has no subscription or is a pattern.
+     */
+    private Route resolveRoute(String tag) {
+        if (TagTrie.isPattern(tag)) {
+            return null;
+        }
+
+        Route route = mTagRoutes.get(tag);
+        if (mPatterns.isEmpty()) {
+            return route;
+        }
+
+        List<Subscription> matched = new ArrayList<>();
+        mPatterns.match(tag, matched);
+        if (matched.isEmpty()) {
+            return route;
+        }
+
+        List<Subscription> subscriptions = new ArrayList<>();
+        if (route != null) {
+            Collections.addAll(subscriptions, route.subscriptions);
+        }
+        for (Subscription subscription : matched) {
+            if (!hasSubscriber(subscriptions, subscription.subscriber)) {
+                subscriptions.add(subscription);
+            }
+        }
+
+        return new Route(subscriptions.toArray(new Subscription[subscriptions.size()]));
+    }
+
+    private static boolean hasSubscriber(List<Subscription> subscriptions, Subscriber subscriber) {
+        for (int i = 0; i < subscriptions.size(); i++) {
+            if (subscriptions.get(i).subscriber.equals(subscriber)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the route of the given tag, <code>null</code> if it has no subscription. Tags
+     * which only patterns subscribe to are resolved on their first post and cached, up to
+     * {@link #MAX_PATTERN_CACHE_SIZE} of them, beyond that they are resolved again.
+     */
+    Route getRoute(String tag) {
+        Route route = mRoutes.get(tag);
+        if (route != null || !mHasPatterns) {
+            return route;
+        }
+
+        route = mPatternRoutes.get(tag);
+        if (route != null || mUnmatchedTags.contains(tag)) {
+            return route;
+        }
+
+        synchronized (mRoutes) {
+            route = mRoutes.get(tag);
+            if (route == null) {
+                route = resolveRoute(tag);
+                if (route == null) {
+                    if (mUnmatchedTags.size() >= MAX_PATTERN_CACHE_SIZE) {
+                        mUnmatchedTags.clear();
+                    }
+                    mUnmatchedTags.add(tag);
+                } else {
+                    if (mPatternRoutes.size() >= MAX_PATTERN_CACHE_SIZE) {
+                        mPatternRoutes.clear();
+                    }
+                    mPatternRoutes.put(tag, route);
+                }
+            }
+        }
+
+        return route;
+    }
+
+    /**
+     * Returns the channel of the given tag, see {@link Channel}. Channels are created once per
+     * tag and live as long as this event bus.
+     *
+     * @param tag the event tag.
+     */
+    @NonNull
+    public Channel getChannel(@NonNull String tag) {
+        Channel channel = mChannels.get(tag);
+        if (channel == null) {
+            synchronized (mRoutes) {
+                channel = mChannels.get(tag);
+                if (channel == null) {
+                    channel = new Channel(this, tag, getRoute(tag));
+                    mChannels.put(tag, channel);
+                }
+            }
+        }
+
+        return channel;
+    }
+
+    /**
+     * Returns the channel of the tag with the given ID in the {@link TagTable} of this event
+     * bus, see {@link Builder#setTagTable(TagTable)}. The ID must be a constant of that table,
+     * IDs of other tables denote other tags.
+     *
+     * @param tagId the ID of the event tag.
+     * @throws IllegalArgumentException if the ID is not in the tag table.
+     */
+    @NonNull
+    public Channel getChannel(int tagId) {
+        if (tagId < 0 || tagId >= mChannelsById.length) {
+            throw new IllegalArgumentException("Unknown tag id : " + tagId);
+        }
+
+        return mChannelsById[tagId];
+    }
+
+    /**
+     * Creates a poster of the given event contract posting to this event bus. The contract must
+     * be an interface annotated with {@link cn.yiiguxing.event.annotation.Poster}, its
+     * implementation is generated at compile time and posts the arguments of each method
+     * through the {@link Channel} of its tag, without a data array or a routing lookup. Methods
+     * whose parameter types are primitive or final classes post with a {@link Channel.Shape},
+     * whose subscriptions are resolved once per route instead of per event.
+     *
+     * @param contract the event contract.
+     * @throws IllegalArgumentException if no poster has been generated for the contract.
+     */
+    @NonNull
+    public <T> T createPoster(@NonNull Class<T> contract) {
+        Constructor<?> constructor = POSTER.get(contract);
+        try {
+            if (constructor == null) {
+                constructor = Class.forName(contract.getName() + POSTER_SUFFIX, true,
+                        contract.getClassLoader()).getConstructor(EventBus.class);
+                POSTER.putIfAbsent(contract, constructor);
+            }
+
+            return contract.cast(constructor.newInstance(this));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("No poster generated for " + contract.getName()
+                    + ", is it annotated with @Poster?", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to create poster for " + contract.getName(), e);
+        }
+    }
+
+    /**
+     * Posts an event to the event bus.
+     *
+     * @param data the event data.
+     */
+    public void post(Object... data) {
+        post(DEFAULT_TAG, data);
+    }
+
+    /**
+     * Posts an event to the event bus.
+     *
+     * @param tag  the event tag.
+     * @param data the event data.
+     */
+    public void post(String tag, Object... data) {
+        if (isUnrouted(tag)) {
+            return;
+        }
+
+        post(Event.obtain(this, tag, data));
+    }
+
+    /**
+     * Posts the given object to the subscribers of its class, superclasses and interfaces, see
+     * {@link #registerForType(Subscriber, Class, ThreadMode)}. One event is posted to the
+     * subscriptions of the whole type hierarchy, the most specific type first, so a subscriber
+     * registered for several of these types receives the object once. Its tag is the name of
+     * the class of the object, which is not used for routing. The merged subscriptions of a
+     * class are resolved on its first post and cached.
+     *
+     * @param event the event object.
+     */
+    public void postByType(@NonNull Object event) {
+        Class<?> type = event.getClass();
+        Route route = getTypeRoute(type);
+        if (route == null && mDeadEventSink == null) {
+            return;
+        }
+
+        Event typed = Event.obtainBuffered(this, type.getName(), 1);
+        typed.getRawData()[0] = event;
+        typed.requestUse();
+        mEventDispatcher.get().dispatchRouted(this, typed, route);
+    }
+
+    /**
+     * Returns the subscriptions of the type hierarchy of the given class, a subscriber
+     * registered for several of these types is only kept for the most specific one.
+     *
+     * @return the route, <code>null</code> if no type of the hierarchy has a subscription.
+     */
+    private Route getTypeRoute(Class<?> type) {
+        Route route = mResolvedTypeRoutes.get(type);
+        if (route == null) {
+            synchronized (mRoutes) {
+                route = mResolvedTypeRoutes.get(type);
+                if (route == null) {
+                    List<Subscription> subscriptions = new ArrayList<>();
+                    for (Class<?> t : getTypeHierarchy(type)) {
+                        Route typeRoute = mTypeRoutes.get(t);
+                        if (typeRoute == null) {
+                            continue;
+                        }
+                        for (Subscription subscription : typeRoute.subscriptions) {
+                            if (!hasSubscriber(subscriptions, subscription.subscriber)) {
+                                subscriptions.add(subscription);
+                            }
+                        }
+                    }
+
+                    if (subscriptions.isEmpty()) {
+                        route = NO_ROUTE;
+                    } else {
+                        route = new Route(
+                                subscriptions.toArray(new Subscription[subscriptions.size()]));
+                    }
+                    mResolvedTypeRoutes.put(type, route);
+                }
+            }
+        }
+
+        return route != NO_ROUTE ? route : null;
+    }
+
+    /**
+     * Posts a batch of events to one tag, e.g. the changes of a list. The routing is resolved
+     * once for the batch and each subscription receives the events it accepts, in order, with
+     * a single handoff to its handler, see {@link BatchEventHandler}.
+     *
+     * @param tag   the event tag.
+     * @param batch the data of the events, one array per event.
+     * @throws IllegalStateException if the data of an event is too long, none of the batch is
+     *                               posted then.
+     */
+    public void postAll(String tag, @NonNull Iterable<Object[]> batch) {
+        Route route = getRoute(tag);
+        if (route == null && mDeadEventSink == null) {
+            return;
+        }
+
+        List<Event> events = new ArrayList<>();
+        for (Object[] data : batch) {
+            int length = data == null ? 0 : data.length;
+            if (length > mMaxDataLength) {
+                // None of the events obtained so far has been posted, they go back to the pool.
+                for (Event event : events) {
+                    event.requestRecycle();
+                }
+                throw new IllegalStateException("Data length > " + mMaxDataLength + " : " + length);
+            }
+
+            Event event = Event.obtain(this, tag, data);
+            event.requestUse();
+            events.add(event);
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        mEventDispatcher.get().dispatchBatch(this, route, events);
+    }
+
+    /**
+     * Posts an event and returns its completion, see {@link PostFuture}. Unlike the other
+     * posts, the failures of the subscribers are collected by the future instead of being
+     * thrown. So are the values the subscribers reply with, see
+     * {@link PostFuture#getReplies(long, java.util.concurrent.TimeUnit)}. Generated subscribers
+     * reply with the value their method returns, others with {@link Event#reply(Object)}.
+     *
+     * @param tag  the event tag.
+     * @param data the event data.
+     */
+    @NonNull
+    public PostFuture postAsync(String tag, Object... data) {
+        return postWithFuture(tag, data, new PostFuture(false));
+    }
+
+    /**
+     * Posts an event like {@link #postAsync(String, Object...)} which only needs the first
+     * non-<code>null</code> reply, see {@link PostFuture#getFirstReply(long,
+     * java.util.concurrent.TimeUnit)}. Once it is replied, the subscriptions which have not
+     * been delivered on the posting thread are skipped, those already handed out to the main
+     * thread or an executor still run.
+     *
+     * @param tag  the event tag.
+     * @param data the event data.
+     */
+    @NonNull
+    public PostFuture requestFirst(String tag, Object... data) {
+        return postWithFuture(tag, data, new PostFuture(true));
+    }
+
+    private PostFuture postWithFuture(String tag, Object[] data, PostFuture future) {
+        Event event = Event.obtain(this, tag, data);
+        event.setFuture(future);
+        post(event);
+
+        return future;
+    }
+
+    /**
+     * Posts an event carrying an <code>int</code> without boxing it.
+     *
+     * @param tag   the event tag.
+     * @param value the event data.
+     */
+    public void post(String tag, int value) {
+        if (isUnrouted(tag)) {
+            return;
+        }
+
+        post(Event.obtain(this, tag, value));
+    }
+
+    /**
+     * Posts an event carrying a <code>long</code> without boxing it.
+     *
+     * @param tag   the event tag.
+     * @param value the event data.
+     */
+    public void post(String tag, long value) {
+        if (isUnrouted(tag)) {
+            return;
+        }
+
+        post(Event.obtain(this, tag, value));
+    }
+
+    /**
+     * Posts an event carrying a <code>double</code> without boxing it.
+     *
+     * @param tag   the event tag.
+     * @param value the event data.
+     */
+    public void post(String tag, double value) {
+        if (isUnrouted(tag)) {
+            return;
+        }
+
+        post(Event.obtain(this, tag, value));
+    }
+
+    /**
+     * Posts an event carrying a <code>float</code> without boxing it.
+     *
+     * @param tag   the event tag.
+     * @param value the event data.
+     */
+    public void post(String tag, float value) {
+        if (isUnrouted(tag)) {
+            return;
+        }
+
+        post(Event.obtain(this, tag, value));
+    }
+
+    /**
+     * Posts an event carrying a <code>boolean</code> without boxing it.
+     *
+     * @param tag   the event tag.
+     * @param value the event data.
+     */
+    public void post(String tag, boolean value) {
+        if (isUnrouted(tag)) {
+            return;
+        }
+
+        post(Event.obtain(this, tag, value));
+    }
+
+    /**
+     * Posts an event carrying a <code>char</code> without boxing it.
+     *
+     * @param tag   the event tag.
+     * @param value the event data.
+     */
+    public void post(String tag, char value) {
+        if (isUnrouted(tag)) {
+            return;
+        }
+
+        post(Event.obtain(this, tag, value));
+    }
+
+    /**
+     * Posts an event carrying a <code>short</code> without boxing it.
+     *
+     * @param tag   the event tag.
+     * @param value the event data.
+     */
+    public void post(String tag, short value) {
+        if (isUnrouted(tag)) {
+            return;
+        }
+
+        post(Event.obtain(this, tag, value));
+    }
+
+    /**
+     * Posts an event carrying a <code>byte</code> without boxing it.
+     *
+     * @param tag   the event tag.
+     * @param value the event data.
+     */
+    public void post(String tag, byte value) {
+        if (isUnrouted(tag)) {
+            return;
+        }
+
+        post(Event.obtain(this, tag, value));
+    }
+
+    /**
+     * Returns whether events of the given tag are dropped without being obtained, which is the
+     * case when the tag has no subscription and no dead event sink is set.
+     */
+    private boolean isUnrouted(String tag) {
+        return mDeadEventSink == null && getRoute(tag) == null;
+    }
+
+    boolean hasDeadEventSink() {
+        return mDeadEventSink != null;
+    }
+
+    /**
+     * Posts the given event to the event bus.
+     *
+     * @param event The event.
+     */
+    public void post(@NonNull Event event) {
+        if (event.isInUse()) {
+            throw new IllegalStateException("Cannot post this event because it "
+                    + "is still in use.");
+        }
+
+        int length = event.getDataLength();
+        if (length > mMaxDataLength) {
+            throw new IllegalStateException("Data length > " + mMaxDataLength + " : " + length);
+        }
+
+        event.requestUse();
+        mEventDispatcher.get().dispatchEvent(this, event, null);
+    }
+
+    /**
+     * Posts an event obtained by the given channel, <code>null</code> if the event is not
+     * posted through a channel.
+     */
+    void post(Event event, Channel channel) {
+        int length = event.getDataLength();
+        if (length > mMaxDataLength) {
+            throw new IllegalStateException("Data length > " + mMaxDataLength + " : " + length);
+        }
+
+        event.requestUse();
+        mEventDispatcher.get().dispatchEvent(this, event, channel);
+    }
+
+    /**
+     * Posts an event to the given subscriptions, resolved ahead for its shape,
+     * <code>null</code> if its tag has no subscription.
+     */
+    void post(Event event, Subscription[] subscriptions) {
+        int length = event.getDataLength();
+        if (length > mMaxDataLength) {
+            throw new IllegalStateException("Data length > " + mMaxDataLength + " : " + length);
+        }
+
+        event.requestUse();
+        mEventDispatcher.get().dispatchResolved(this, event, subscriptions);
+    }
+
+    /**
+     * Returns the pool of the events posted to this event bus.
+     */
+    public EventPool getEventPool() {
+        return mEventPool;
+    }
+
+    /**
+     * Returns the platform this event bus runs on.
+     */
+    @NonNull
+    public Platform getPlatform() {
+        return mPlatform;
+    }
+
+    /**
+     * 取消当前线程中正在Post的事件。
+     * 注意：该方法只能在事件订阅方法和{@link EventHandler#handlerEvent(Subscriber, Event)}方法内调用。
+     *
+     * @throws IllegalStateException 如果当前线程中没有事件正在Post.
+     */
+    public void cancelCurrentPostingEvent() {
+        EventDispatcher eventDispatcher = mEventDispatcher.get();
+        if (!eventDispatcher.isPosting)
+            throw new IllegalStateException("This method may only be called from inside event" +
+                    " handling methods on the posting thread");
+
+        eventDispatcher.isCanceled = true;
+    }
+
+    /**
+     * Cancels the delivery of the given event if it is being delivered on the current thread,
+     * deliveries on other threads have already been handed out and are not affected.
+     */
+    void cancelDelivery(Event event) {
+        EventDispatcher eventDispatcher = mEventDispatcher.get();
+        if (eventDispatcher.isPosting && eventDispatcher.current == event) {
+            eventDispatcher.isCanceled = true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[EventBus \'" + mDescriptor + "\']";
+    }
+
+    /**
+     * Event dispatcher. It is held by a thread local of its event bus, so it must not reference
+     * the bus, which is passed to it instead, or the bus would stay reachable from every thread
+     * which ever posted to it.
+     */
+    static class EventDispatcher {
+        private static final int INITIAL_QUEUE_CAPACITY = 16;
+
+        /**
+         * Ring buffer of the nested events to dispatch and the subscriptions resolved for them
+         * when they were posted. It is only touched by the owning thread and only grows, so
+         * queuing an event allocates nothing once it is large enough.
+         */
+        private Event[] queuedEvents = new Event[INITIAL_QUEUE_CAPACITY];
+        private Subscription[][] queuedSubscriptions = new Subscription[INITIAL_QUEUE_CAPACITY][];
+        private int queueHead;
+        private int queueSize;
+        /**
+         * Shape probe for the routing lookups of this thread.
+         */
+        final EventShape shape;
+        boolean isPosting;
+        boolean isCanceled;
+        /**
+         * The event being delivered on this thread, <code>null</code> if none.
+         */
+        Event current;
+
+        EventDispatcher(int maxDataLength) {
+            shape = new EventShape(maxDataLength);
+        }
+
+        /**
+         * @param channel the channel the event is posted through, <code>null</code> if none.
+         */
+        void dispatchEvent(EventBus bus, Event event, Channel channel) {
+            dispatchResolved(bus, event, resolve(bus, event, channel));
+        }
+
+        /**
+         * Dispatches an event to the given route instead of the route of its tag.
+         *
+         * @param route the route, <code>null</code> if there is no subscription.
+         */
+        void dispatchRouted(EventBus bus, Event event, Route route) {
+            dispatchResolved(bus, event, route == null ? null : route.resolve(event, shape));
+        }
+
+        /**
+         * Dispatches an event to the given subscriptions, <code>null</code> if there is none.
+         */
+        void dispatchResolved(EventBus bus, Event event, Subscription[] subscriptions) {
+            if (isPosting) {
+                enqueue(event, subscriptions);
+                return;
+            }
+
+            isPosting = true;
+            try {
+                // The event is dispatched directly, only nested events are queued.
+                current = event;
+                deliver(bus, event, subscriptions);
+                current = null;
+                isCanceled = false;
+                event.requestRecycle();
+                drainQueue(bus);
+            } finally {
+                isPosting = false;
+                isCanceled = false;
+                current = null;
+            }
+        }
+
+        /**
+         * Dispatches the events of a batch posted to one tag. Each subscription receives the
+         * events it accepts with one call to its handler, cancelling the delivery skips the
+         * subscriptions which have not received the batch yet.
+         *
+         * @param route the route of the tag, <code>null</code> if it has no subscription.
+         */
+        void dispatchBatch(EventBus bus, Route route, List<Event> events) {
+            if (isPosting) {
+                for (Event event : events) {
+                    enqueue(event, route == null ? null : route.resolve(event, shape));
+                }
+                return;
+            }
+
+            isPosting = true;
+            try {
+                deliverBatch(bus, route, events);
+                isCanceled = false;
+                for (Event event : events) {
+                    event.requestRecycle();
+                }
+                drainQueue(bus);
+            } finally {
+                isPosting = false;
+                isCanceled = false;
+                current = null;
+            }
+        }
+
+        private void drainQueue(EventBus bus) {
+            while (queueSize > 0) {
+                Event event = queuedEvents[queueHead];
+                Subscription[] subscriptions = queuedSubscriptions[queueHead];
+                queuedEvents[queueHead] = null;
+                queuedSubscriptions[queueHead] = null;
+                queueHead = (queueHead + 1) & (queuedEvents.length - 1);
+                queueSize--;
+
+                current = event;
+                deliver(bus, event, subscriptions);
+                current = null;
+                isCanceled = false;
+                event.requestRecycle();
+            }
+        }
+
+        /**
+         * Returns the subscriptions which can receive the given event, <code>null</code> if its
+         * tag has no subscription.
+         */
+        private Subscription[] resolve(EventBus bus, Event event, Channel channel) {
+            if (channel != null) {
+                return channel.resolve(event, shape);
+            }
+
+            Route route = bus.getRoute(event.getTag());
+            return route == null ? null : route.resolve(event, shape);
+        }
+
+        private void enqueue(Event event, Subscription[] subscriptions) {
+            int capacity = queuedEvents.length;
+            if (queueSize == capacity) {
+                Event[] events = new Event[capacity << 1];
+                Subscription[][] resolved = new Subscription[capacity << 1][];
+                int head = capacity - queueHead;
+                System.arraycopy(queuedEvents, queueHead, events, 0, head);
+                System.arraycopy(queuedEvents, 0, events, head, queueHead);
+                System.arraycopy(queuedSubscriptions, queueHead, resolved, 0, head);
+                System.arraycopy(queuedSubscriptions, 0, resolved, head, queueHead);
+                queuedEvents = events;
+                queuedSubscriptions = resolved;
+                queueHead = 0;
+                capacity <<= 1;
+            }
+
+            int tail = (queueHead + queueSize) & (capacity - 1);
+            queuedEvents[tail] = event;
+            queuedSubscriptions[tail] = subscriptions;
+            queueSize++;
+        }
+
+        private void deliver(EventBus bus, Event event, Subscription[] subscriptions) {
+            if (subscriptions == null || subscriptions.length == 0) {
+                if (bus.mDeadEventSink != null) {
+                    // The sink releases its use of the event like any subscriber.
+                    event.requestUse();
+                    bus.mDeadEventSink.onEvent(event);
+                }
+                return;
+            }
+
+            for (Subscription subscription : subscriptions) {
+                if (isCanceled)
+                    break;
+
+                Subscriber subscriber = subscription.subscriber;
+                if (subscriber instanceof UnstableSubscriber &&
+                        ((UnstableSubscriber) subscriber).getUnstable() == null) {
+                    continue;
+                }
+
+                dispatch(subscription, event);
+            }
+        }
+
+        private void deliverBatch(EventBus bus, Route route, List<Event> events) {
+            if (route == null || route.subscriptions.length == 0) {
+                for (Event event : events) {
+                    deliver(bus, event, null);
+                }
+                return;
+            }
+
+            // Group the events by subscription, the resolved subscriptions keep the order of
+            // the route.
+            Subscription[] subscriptions = route.subscriptions;
+            List<List<Event>> batches =
+                    new ArrayList<>(Collections.<List<Event>>nCopies(subscriptions.length, null));
+            for (Event event : events) {
+                Subscription[] resolved = route.resolve(event, shape);
+                if (resolved.length == 0) {
+                    deliver(bus, event, resolved);
+                    continue;
+                }
+
+                int index = 0;
+                for (Subscription subscription : resolved) {
+                    while (subscriptions[index] != subscription) {
+                        index++;
+                    }
+                    List<Event> batch = batches.get(index);
+                    if (batch == null) {
+                        batch = new ArrayList<>();
+                        batches.set(index, batch);
+                    }
+                    batch.add(event);
+                }
+            }
+
+            for (int i = 0; i < subscriptions.length; i++) {
+                List<Event> batch = batches.get(i);
+                if (batch == null) {
+                    continue;
+                }
+                if (isCanceled)
+                    break;
+
+                Subscription subscription = subscriptions[i];
+                Subscriber subscriber = subscription.subscriber;
+                if (subscriber instanceof UnstableSubscriber &&
+                        ((UnstableSubscriber) subscriber).getUnstable() == null) {
+                    continue;
+                }
+
+                for (Event event : batch) {
+                    event.requestUse();
+                }
+                EventHandler handler = subscription.eventHandler;
+                if (handler instanceof BatchEventHandler) {
+                    ((BatchEventHandler) handler).handlerEvents(subscriber, batch);
+                } else {
+                    for (Event event : batch) {
+                        handler.handlerEvent(subscriber, event);
+                    }
+                }
+            }
+        }
+
+        void dispatch(Subscription subscription, Event event) {
+            event.requestUse();
+            subscription.eventHandler.handlerEvent(subscription.subscriber, event);
+        }
+
+    }
+
+    /**
+     * Event bus builder.
+     */
+    public static class Builder {
+
+        String descriptor;
+        Platform platform;
+        final List<SubscriberIndex> indices = new ArrayList<>();
+        TagTable tagTable;
+        boolean debug;
+        int maxDataLength = DEFAULT_MAX_DATA_LENGTH;
+        int eventPoolCapacity = EventPool.DEFAULT_CAPACITY;
+        EventHandler defaultHandler;
+        Executor executor;
+        int asyncBatchSize;
+        long frameBudgetMillis;
+        Subscriber deadEventSink;
+
+        public Builder(String descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * @param length The max data length. default={@value DEFAULT_MAX_DATA_LENGTH}.
+         * @return The builder.
+         * @throws IllegalStateException if <code>length < 0</code>.
+         */
+        public Builder setMaxDataLength(int length) {
+            if (length < 0) {
+                throw new IllegalStateException("length < 0 : " + length);
+            }
+
+            maxDataLength = length;
+            return this;
+        }
+
+        /**
+         * @param capacity The capacity of the event pool, 0 disables pooling.
+         *                 default={@value EventPool#DEFAULT_CAPACITY}.
+         * @return The builder.
+         * @throws IllegalStateException if <code>capacity < 0</code>.
+         */
+        public Builder setEventPoolCapacity(int capacity) {
+            if (capacity < 0) {
+                throw new IllegalStateException("capacity < 0 : " + capacity);
+            }
+
+            eventPoolCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * @param platform The platform. default={@link Platform#get()}.
+         * @return The builder.
+         * @throws NullPointerException if platform is null.
+         */
+        @SuppressWarnings("all")
+        public Builder setPlatform(@NonNull Platform platform) {
+            if (platform == null) {
+                throw new NullPointerException("platform = null.");
+            }
+
+            this.platform = platform;
+            return this;
+        }
+
+        /**
+         * Sets the generated tag table, the channels of its tags are then looked up by ID with
+         * {@link EventBus#getChannel(int)}. Tags outside the table are still posted by name.
+         *
+         * @param table The tag table.
+         * @return The builder.
+         * @throws NullPointerException if table is null.
+         */
+        @SuppressWarnings("all")
+        public Builder setTagTable(@NonNull TagTable table) {
+            if (table == null) {
+                throw new NullPointerException("table = null.");
+            }
+
+            tagTable = table;
+            return this;
+        }
+
+        /**
+         * Adds a generated subscriber index. Subscribers of the classes in the indices are
+         * registered without reflection, other classes are still looked up by name.
+         *
+         * @param index The subscriber index.
+         * @return The builder.
+         * @throws NullPointerException if index is null.
+         */
+        @SuppressWarnings("all")
+        public Builder addIndex(@NonNull SubscriberIndex index) {
+            if (index == null) {
+                throw new NullPointerException("index = null.");
+            }
+
+            indices.add(index);
+            return this;
+        }
+
+        /**
+         * @param handler The event handler.
+         * @return The builder.
+         * @throws NullPointerException if handler is null.
+         */
+        @SuppressWarnings("all")
+        public Builder setDefaultEventHandler(@NonNull EventHandler handler) {
+            if (handler == null) {
+                throw new NullPointerException("handler = null.");
+            }
+
+            defaultHandler = handler;
+            return this;
+        }
+
+        /**
+         * @param executor The executor.
+         * @return The builder.
+         * @throws NullPointerException if executor is null.
+         */
+        @SuppressWarnings("all")
+        public Builder setExecutor(@NonNull Executor executor) {
+            if (executor == null) {
+                throw new NullPointerException("handler = null.");
+            }
+
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Delivers the events of {@link ThreadMode#ASYNC} subscribers through a
+         * {@link BatchAsyncEventHandler}, which drains queued deliveries on the executor in
+         * batches of the given size. default=0, one executor task per delivery.
+         *
+         * @param size The batch size, 0 disables batching.
+         * @return The builder.
+         * @throws IllegalStateException if <code>size < 0</code>.
+         */
+        public Builder setAsyncBatchSize(int size) {
+            if (size < 0) {
+                throw new IllegalStateException("size < 0 : " + size);
+            }
+
+            asyncBatchSize = size;
+            return this;
+        }
+
+        /**
+         * Coalesces the deliveries to {@link ThreadMode#MAIN} subscribers into one message per
+         * frame and spends at most the given time per frame delivering them, on Android through
+         * the <code>FrameUIThreadEventHandler</code>. Platforms without frames ignore it.
+         * default=0, one message per delivery.
+         *
+         * @param millis The frame budget in milliseconds, 0 disables coalescing.
+         * @return The builder.
+         * @throws IllegalStateException if <code>millis < 0</code>.
+         */
+        public Builder setMainThreadFrameBudget(long millis) {
+            if (millis < 0) {
+                throw new IllegalStateException("millis < 0 : " + millis);
+            }
+
+            frameBudgetMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the subscriber receiving the events which no subscription accepts, on the
+         * posting thread. Without a sink, events posted to a tag without subscriptions are
+         * dropped before an event is obtained.
+         *
+         * @param sink The dead event sink.
+         * @return The builder.
+         * @throws NullPointerException if sink is null.
+         */
+        @SuppressWarnings("all")
+        public Builder setDeadEventSink(@NonNull Subscriber sink) {
+            if (sink == null) {
+                throw new NullPointerException("sink = null.");
+            }
+
+            deadEventSink = sink;
+            return this;
+        }
+
+        public Builder setDebug(boolean flag) {
+            debug = flag;
+            return this;
+        }
+
+        public EventBus create() {
+            return new EventBus(this);
+        }
+
+    }
+
+}
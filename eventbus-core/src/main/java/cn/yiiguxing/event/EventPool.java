@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EventPool
+ * <p/>
+ * The {@link Event} pool of an event bus. Every thread obtains and recycles events through its
+ * own magazine without any synchronization, only a full or empty magazine is exchanged with the
+ * shared depot under a lock. Events recycled on one thread (e.g. by async handlers) flow back to
+ * the posting threads through the depot.
+ */
+public final class EventPool {
+
+    static final int DEFAULT_CAPACITY = 50;
+
+    private static final int MAX_MAGAZINE_SIZE = 16;
+    /**
+     * Number of pool operations after which a thread flushes its statistics.
+     */
+    private static final int STATISTICS_FLUSH_INTERVAL = 64;
+
+    private final int mCapacity;
+    private final int mMagazineSize;
+
+    private final ThreadLocal<Magazine> mMagazines = new ThreadLocal<Magazine>() {
+        @Override
+        protected Magazine initialValue() {
+            return new Magazine(mMagazineSize);
+        }
+    };
+
+    /**
+     * Full magazines, guarded by the lock of the depot.
+     */
+    private final Event[][] mDepot;
+    private int mDepotSize;
+
+    private final AtomicLong mHitCount = new AtomicLong();
+    private final AtomicLong mMissCount = new AtomicLong();
+
+    EventPool(int capacity) {
+        mCapacity = capacity;
+        mMagazineSize = Math.min(capacity, MAX_MAGAZINE_SIZE);
+        mDepot = new Event[mMagazineSize == 0 ? 0 : capacity / mMagazineSize][];
+    }
+
+    /**
+     * Returns a pooled event, or <code>null</code> if the pool is empty.
+     */
+    @Nullable
+    Event obtain() {
+        Magazine magazine = mMagazines.get();
+        if (magazine.size == 0 && !loadFull(magazine)) {
+            magazine.misses++;
+            magazine.countOperation(this);
+            return null;
+        }
+
+        Event event = magazine.events[--magazine.size];
+        magazine.events[magazine.size] = null;
+        magazine.hits++;
+        magazine.countOperation(this);
+
+        return event;
+    }
+
+    /**
+     * Puts the given event back into the pool, the event is dropped if the pool is full.
+     */
+    void recycle(Event event) {
+        Magazine magazine = mMagazines.get();
+        if (magazine.size == magazine.events.length && !unloadFull(magazine)) {
+            return;
+        }
+
+        magazine.events[magazine.size++] = event;
+    }
+
+    private boolean loadFull(Magazine magazine) {
+        synchronized (mDepot) {
+            if (mDepotSize == 0) {
+                return false;
+            }
+
+            Event[] full = mDepot[--mDepotSize];
+            mDepot[mDepotSize] = null;
+            magazine.events = full;
+            magazine.size = full.length;
+        }
+
+        return true;
+    }
+
+    private boolean unloadFull(Magazine magazine) {
+        synchronized (mDepot) {
+            if (mDepotSize == mDepot.length) {
+                return false;
+            }
+
+            mDepot[mDepotSize++] = magazine.events;
+        }
+
+        magazine.events = new Event[mMagazineSize];
+        magazine.size = 0;
+
+        return true;
+    }
+
+    /**
+     * Returns the capacity of the shared depot, each thread may cache a few more events.
+     */
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Returns the number of events obtained from the pool. Each thread flushes its count
+     * periodically, so the value may lag slightly behind.
+     */
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * Returns the number of events allocated because the pool was empty. Each thread flushes its
+     * count periodically, so the value may lag slightly behind.
+     */
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "EventPool{" +
+                "capacity=" + mCapacity +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                '}';
+    }
+
+    /**
+     * The events cached by one thread. It is held by a thread local of the pool, so it must not
+     * reference the pool, or the pool would stay reachable from every thread which ever used it.
+     */
+    private static final class Magazine {
+        Event[] events;
+        int size;
+
+        long hits;
+        long misses;
+        int operations;
+
+        Magazine(int size) {
+            events = new Event[size];
+        }
+
+        void countOperation(EventPool pool) {
+            if (++operations == STATISTICS_FLUSH_INTERVAL) {
+                pool.mHitCount.addAndGet(hits);
+                pool.mMissCount.addAndGet(misses);
+                hits = 0;
+                misses = 0;
+                operations = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import java.util.Arrays;
+
+/**
+ * The shape of the event data: its length plus the runtime class of every element.
+ * <p/>
+ * A shape is used as the key of the routing index, instances used as lookup probes are
+ * mutable and reused by the posting thread, cached keys are immutable copies.
+ */
+final class EventShape {
+
+    private Class<?>[] mTypes;
+    private int mArity;
+    private int mHash;
+
+    EventShape(int capacity) {
+        mTypes = new Class<?>[capacity];
+    }
+
+    private EventShape(Class<?>[] types, int arity, int hash) {
+        mTypes = types;
+        mArity = arity;
+        mHash = hash;
+    }
+
+    /**
+     * Sets this shape to the shape of the data of the given event. Primitive data is keyed by
+     * its primitive type, so it never has the same shape as boxed data.
+     */
+    void set(Event event) {
+        Class<?> primitiveType = event.getPrimitiveType();
+        if (primitiveType == null) {
+            set(event.getRawData());
+            return;
+        }
+
+        if (mTypes.length == 0) {
+            mTypes = new Class<?>[1];
+        }
+        mTypes[0] = primitiveType;
+        mArity = 1;
+        mHash = 31 + primitiveType.hashCode();
+    }
+
+    /**
+     * Sets this shape to the shape of the given data. <code>null</code> data has the same shape
+     * as empty data.
+     */
+    void set(Object[] data) {
+        int arity = data == null ? 0 : data.length;
+        if (mTypes.length < arity) {
+            mTypes = new Class<?>[arity];
+        }
+
+        int hash = arity;
+        for (int i = 0; i < arity; i++) {
+            Object item = data[i];
+            Class<?> type = item == null ? null : item.getClass();
+            mTypes[i] = type;
+            hash = 31 * hash + (type == null ? 0 : type.hashCode());
+        }
+
+        mArity = arity;
+        mHash = hash;
+    }
+
+    /**
+     * Returns whether the data of the given event has this shape, without computing its hash.
+     */
+    boolean matches(Event event) {
+        Class<?> primitiveType = event.getPrimitiveType();
+        if (primitiveType != null) {
+            return mArity == 1 && mTypes[0] == primitiveType;
+        }
+
+        Object[] data = event.getRawData();
+        int arity = data == null ? 0 : data.length;
+        if (arity != mArity) {
+            return false;
+        }
+
+        for (int i = 0; i < arity; i++) {
+            Object item = data[i];
+            if (mTypes[i] != (item == null ? null : item.getClass())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns an immutable copy of this shape.
+     */
+    EventShape copy() {
+        return new EventShape(Arrays.copyOf(mTypes, mArity), mArity, mHash);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EventShape)) return false;
+
+        EventShape that = (EventShape) o;
+        if (mHash != that.mHash || mArity != that.mArity) return false;
+
+        for (int i = 0; i < mArity; i++) {
+            if (mTypes[i] != that.mTypes[i]) return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return mHash;
+    }
+
+    @Override
+    public String toString() {
+        return "EventShape" + Arrays.toString(Arrays.copyOf(mTypes, mArity));
+    }
+}
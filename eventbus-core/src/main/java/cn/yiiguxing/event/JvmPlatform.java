@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JvmPlatform
+ * <p/>
+ * The platform of plain JVMs. It logs through <code>java.util.logging</code> and runs
+ * {@link ThreadMode#ASYNC} subscribers on a shared pool of daemon threads. There is no main
+ * thread unless an executor for it is given, e.g. one which posts to the event dispatch thread
+ * of a UI toolkit. Tasks run by that executor count as running on the main thread.
+ */
+public class JvmPlatform extends Platform {
+
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int POOL_SIZE = CPU_COUNT + 1;
+    private static final long KEEP_ALIVE_SECONDS = 1;
+
+    private static volatile Executor sAsyncExecutor;
+
+    private final Executor mMainThreadExecutor;
+    private final ThreadLocal<Boolean> mOnMainThread = new ThreadLocal<>();
+
+    public JvmPlatform() {
+        mMainThreadExecutor = null;
+    }
+
+    public JvmPlatform(@NonNull final Executor mainThreadExecutor) {
+        mMainThreadExecutor = new Executor() {
+            @Override
+            public void execute(@NonNull final Runnable command) {
+                mainThreadExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        mOnMainThread.set(Boolean.TRUE);
+                        try {
+                            command.run();
+                        } finally {
+                            mOnMainThread.remove();
+                        }
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public void logDebug(@NonNull String tag, @NonNull String message) {
+        Logger.getLogger(tag).fine(message);
+    }
+
+    @Override
+    public void logWarning(@NonNull String tag, @NonNull String message,
+                           @Nullable Throwable throwable) {
+        Logger.getLogger(tag).log(Level.WARNING, message, throwable);
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return mOnMainThread.get() != null;
+    }
+
+    @Nullable
+    @Override
+    public Executor getMainThreadExecutor() {
+        return mMainThreadExecutor;
+    }
+
+    @NonNull
+    @Override
+    public Executor getDefaultAsyncExecutor() {
+        Executor executor = sAsyncExecutor;
+        if (executor == null) {
+            synchronized (JvmPlatform.class) {
+                executor = sAsyncExecutor;
+                if (executor == null) {
+                    executor = createAsyncExecutor();
+                    sAsyncExecutor = executor;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    private static Executor createAsyncExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger mCount = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(@NonNull Runnable runnable) {
+                        Thread thread = new Thread(runnable,
+                                "EventBus-Async #" + mCount.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import cn.yiiguxing.event.handler.EventHandler;
+import cn.yiiguxing.event.handler.MainThreadEventHandler;
+import cn.yiiguxing.event.handler.SimpleEventHandler;
+
+/**
+ * Platform
+ * <p/>
+ * The services the event bus needs from the platform it runs on: logging, the main thread, the
+ * default executor of {@link ThreadMode#ASYNC} subscribers and the virtual threads of
+ * {@link ThreadMode#VIRTUAL} subscribers. The Android platform is used
+ * when the eventbus module is on the classpath, {@link JvmPlatform} otherwise. A platform can
+ * also be set per event bus with {@link EventBus.Builder#setPlatform(Platform)}.
+ */
+public abstract class Platform {
+
+    private static final String ANDROID_PLATFORM = "cn.yiiguxing.event.AndroidPlatform";
+
+    private static volatile Platform sDefault;
+
+    /**
+     * Returns the platform the event buses use by default.
+     */
+    @NonNull
+    public static Platform get() {
+        Platform platform = sDefault;
+        if (platform == null) {
+            synchronized (Platform.class) {
+                platform = sDefault;
+                if (platform == null) {
+                    platform = findPlatform();
+                    sDefault = platform;
+                }
+            }
+        }
+
+        return platform;
+    }
+
+    private static Platform findPlatform() {
+        try {
+            return (Platform) Class.forName(ANDROID_PLATFORM).newInstance();
+        } catch (ClassNotFoundException e) {
+            return new JvmPlatform();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException("Unable to create platform " + ANDROID_PLATFORM, e);
+        }
+    }
+
+    public abstract void logDebug(@NonNull String tag, @NonNull String message);
+
+    public abstract void logWarning(@NonNull String tag, @NonNull String message,
+                                    @Nullable Throwable throwable);
+
+    /**
+     * Returns whether the current thread is the main thread.
+     */
+    public abstract boolean isMainThread();
+
+    /**
+     * Returns the executor which runs tasks on the main thread, or null if the platform has no
+     * main thread.
+     */
+    @Nullable
+    public abstract Executor getMainThreadExecutor();
+
+    /**
+     * Returns the executor of {@link ThreadMode#ASYNC} subscribers if the event bus is not
+     * given one.
+     */
+    @NonNull
+    public abstract Executor getDefaultAsyncExecutor();
+
+    /**
+     * Returns the executor which runs each task on a new virtual thread, or null if the
+     * runtime has no virtual threads. {@link ThreadMode#VIRTUAL} subscribers are then handled
+     * on the async executor. The executor is looked up once, on the first call, and shared by
+     * all event buses.
+     */
+    @Nullable
+    public Executor getVirtualThreadExecutor() {
+        return VirtualThreads.EXECUTOR;
+    }
+
+    /**
+     * Lazily initialized holder of the virtual thread executor.
+     */
+    private static final class VirtualThreads {
+        static final Executor EXECUTOR = create();
+
+        private static Executor create() {
+            try {
+                // Looked up by name, virtual threads are only available since Java 21.
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (Executor) factory.invoke(null);
+            } catch (NoSuchMethodException e) {
+                return null;
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                // Preview releases without --enable-preview.
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Creates the event handler of {@link ThreadMode#MAIN} subscribers. Without a main thread
+     * the events are handled on the posting thread.
+     *
+     * @param frameBudgetMillis The time per frame the handler may spend delivering events, 0 if
+     *                          the deliveries are not coalesced. Platforms without frames
+     *                          ignore it.
+     */
+    @NonNull
+    public EventHandler createMainThreadHandler(long frameBudgetMillis) {
+        Executor executor = getMainThreadExecutor();
+        return executor != null
+                ? new MainThreadEventHandler(this, executor)
+                : new SimpleEventHandler();
+    }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PostFuture
+ * <p/>
+ * The completion of an event posted with {@link EventBus#postAsync(String, Object...)}. It
+ * completes once every subscription has handled the event, on the posting thread, the main
+ * thread or an executor, which is when the event is no longer in use. The failures of the
+ * subscribers are collected instead of being thrown to their threads.
+ * <p/>
+ * Stages are chained without blocking with {@link #addListener(Listener)}, e.g. to complete a
+ * <code>CompletableFuture</code> on Java 8.
+ * <p/>
+ * The future also collects the replies of the subscribers, from whichever thread they handle
+ * the event on, see {@link Event#reply(Object)}.
+ */
+public final class PostFuture implements Future<Void> {
+
+    /**
+     * Listener of the completion of a post.
+     */
+    public interface Listener {
+        /**
+         * Called on the thread which completes the post, or on the calling thread of
+         * {@link #addListener(Listener)} if the post is already complete.
+         */
+        void onComplete(@NonNull PostFuture future);
+    }
+
+    /**
+     * A failure of a subscriber to handle the event.
+     */
+    public static final class Failure {
+        private final Subscriber mSubscriber;
+        private final Throwable mError;
+
+        Failure(Subscriber subscriber, Throwable error) {
+            mSubscriber = subscriber;
+            mError = error;
+        }
+
+        @NonNull
+        public Subscriber getSubscriber() {
+            return mSubscriber;
+        }
+
+        @NonNull
+        public Throwable getError() {
+            return mError;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure{" +
+                    "mSubscriber=" + mSubscriber +
+                    ", mError=" + mError +
+                    '}';
+        }
+    }
+
+    private final CountDownLatch mDone = new CountDownLatch(1);
+    /**
+     * Guarded by this future.
+     */
+    private final List<Failure> mFailures = new ArrayList<>();
+    /**
+     * Guarded by this future, <code>null</code> once the post is complete.
+     */
+    private List<Listener> mListeners = new ArrayList<>();
+    /**
+     * Counted down on the first non-<code>null</code> reply or on completion.
+     */
+    private final CountDownLatch mReplied = new CountDownLatch(1);
+    /**
+     * Guarded by this future.
+     */
+    private final List<Object> mReplies = new ArrayList<>();
+    /**
+     * Guarded by this future.
+     */
+    private Object mFirstReply;
+    /**
+     * Whether the post stops at the first non-<code>null</code> reply.
+     */
+    private final boolean mFirstReplyOnly;
+
+    PostFuture(boolean firstReplyOnly) {
+        mFirstReplyOnly = firstReplyOnly;
+    }
+
+    synchronized void addFailure(Subscriber subscriber, Throwable error) {
+        mFailures.add(new Failure(subscriber, error));
+    }
+
+    /**
+     * @return <code>true</code> if the reply is the first non-<code>null</code> reply and the
+     * post stops at it, the remaining deliveries should be cancelled then.
+     */
+    boolean addReply(Object reply) {
+        synchronized (this) {
+            mReplies.add(reply);
+            if (reply == null || mFirstReply != null) {
+                return false;
+            }
+            mFirstReply = reply;
+        }
+
+        mReplied.countDown();
+        return mFirstReplyOnly;
+    }
+
+    void complete() {
+        List<Listener> listeners;
+        synchronized (this) {
+            listeners = mListeners;
+            mListeners = null;
+        }
+        if (listeners == null) {
+            return;
+        }
+
+        mDone.countDown();
+        mReplied.countDown();
+        for (Listener listener : listeners) {
+            listener.onComplete(this);
+        }
+    }
+
+    /**
+     * Adds a listener called once the post is complete, immediately if it already is.
+     */
+    public void addListener(@NonNull Listener listener) {
+        synchronized (this) {
+            if (mListeners != null) {
+                mListeners.add(listener);
+                return;
+            }
+        }
+
+        listener.onComplete(this);
+    }
+
+    /**
+     * Returns the failures of the subscribers so far, all of them once the post is complete.
+     */
+    @NonNull
+    public synchronized List<Failure> getFailures() {
+        return Collections.unmodifiableList(new ArrayList<>(mFailures));
+    }
+
+    /**
+     * Returns the replies of the subscribers so far, in the order they were made, all of them
+     * once the post is complete.
+     */
+    @NonNull
+    public synchronized List<Object> getReplies() {
+        return Collections.unmodifiableList(new ArrayList<>(mReplies));
+    }
+
+    /**
+     * Waits until the post is complete or the timeout elapses, then returns the replies so
+     * far. Replies of the subscribers which are still running are not included.
+     */
+    @NonNull
+    public List<Object> getReplies(long timeout, @NonNull TimeUnit unit)
+            throws InterruptedException {
+        mDone.await(timeout, unit);
+        return getReplies();
+    }
+
+    /**
+     * Waits until a subscriber replies with a non-<code>null</code> value, the post is
+     * complete or the timeout elapses.
+     *
+     * @return the first non-<code>null</code> reply, <code>null</code> if there is none yet.
+     */
+    @Nullable
+    public Object getFirstReply(long timeout, @NonNull TimeUnit unit)
+            throws InterruptedException {
+        mReplied.await(timeout, unit);
+        synchronized (this) {
+            return mFirstReply;
+        }
+    }
+
+    /**
+     * Deliveries cannot be cancelled, always returns <code>false</code>.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return mDone.getCount() == 0;
+    }
+
+    /**
+     * Waits until the post is complete.
+     *
+     * @throws ExecutionException if a subscriber failed, caused by the first failure, all of
+     *                            them are returned by {@link #getFailures()}.
+     */
+    @Override
+    public Void get() throws InterruptedException, ExecutionException {
+        mDone.await();
+        return report();
+    }
+
+    @Override
+    public Void get(long timeout, @NonNull TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!mDone.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+
+        return report();
+    }
+
+    private Void report() throws ExecutionException {
+        List<Failure> failures = getFailures();
+        if (failures.isEmpty()) {
+            return null;
+        }
+
+        // Throwable#addSuppressed is not available before Android 4.4, the other failures are
+        // left to getFailures().
+        Throwable cause = failures.get(0).getError();
+        if (failures.size() == 1) {
+            throw new ExecutionException(cause);
+        }
+
+        throw new ExecutionException(failures.size() + " subscribers failed, see getFailures(), "
+                + "first: " + cause, cause);
+    }
+
+    @Override
+    public String toString() {
+        return "PostFuture{" +
+                "done=" + isDone() +
+                ", failures=" + getFailures() +
+                ", replies=" + getReplies() +
+                '}';
+    }
+}
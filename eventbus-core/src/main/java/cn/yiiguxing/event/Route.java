@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.yiiguxing.event.internal.MethodSubscriber;
+
+/**
+ * Route
+ * <p/>
+ * An immutable snapshot of the subscriptions of a tag. The subscriptions which can receive an
+ * event are resolved once per distinct {@link EventShape} and cached. Routes are never modified,
+ * a new route is published whenever the subscriptions of its tag change.
+ */
+final class Route {
+
+    /**
+     * Upper bound of the cached shapes, shapes beyond it are resolved on every post.
+     */
+    private static final int MAX_CACHED_SHAPES = 64;
+
+    private static final Subscription[] EMPTY = new Subscription[0];
+
+    final Subscription[] subscriptions;
+
+    private final Map<EventShape, Subscription[]> mShapeRoutes = new ConcurrentHashMap<>();
+
+    Route(Subscription[] subscriptions) {
+        this.subscriptions = subscriptions;
+    }
+
+    int indexOf(Subscription subscription) {
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (subscriptions[i].equals(subscription)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns a new route with the given subscription appended.
+     */
+    Route add(Subscription subscription) {
+        int length = subscriptions.length;
+        Subscription[] newSubscriptions = new Subscription[length + 1];
+        System.arraycopy(subscriptions, 0, newSubscriptions, 0, length);
+        newSubscriptions[length] = subscription;
+
+        return new Route(newSubscriptions);
+    }
+
+    /**
+     * Returns a new route with the subscription at the given index replaced.
+     */
+    Route set(int index, Subscription subscription) {
+        Subscription[] newSubscriptions = subscriptions.clone();
+        newSubscriptions[index] = subscription;
+
+        return new Route(newSubscriptions);
+    }
+
+    /**
+     * Returns a new route without the given subscriptions, or <code>null</code> if no
+     * subscription remains.
+     */
+    Route removeAll(Collection<Subscription> removed) {
+        Subscription[] newSubscriptions = new Subscription[subscriptions.length];
+        int count = 0;
+        for (Subscription subscription : subscriptions) {
+            if (!removed.contains(subscription)) {
+                newSubscriptions[count++] = subscription;
+            }
+        }
+
+        if (count == 0) {
+            return null;
+        }
+        if (count == subscriptions.length) {
+            return this;
+        }
+
+        return new Route(Arrays.copyOf(newSubscriptions, count));
+    }
+
+    /**
+     * Returns the subscriptions which can receive the given event.
+     *
+     * @param event the event.
+     * @param probe the shape used as lookup key, it will be overwritten.
+     */
+    Subscription[] resolve(Event event, EventShape probe) {
+        probe.set(event);
+
+        Subscription[] routed = mShapeRoutes.get(probe);
+        if (routed == null) {
+            routed = match(event);
+            if (mShapeRoutes.size() < MAX_CACHED_SHAPES) {
+                mShapeRoutes.put(probe.copy(), routed);
+            }
+        }
+
+        return routed;
+    }
+
+    /**
+     * Returns the subscriptions which accept the given event, without the shape cache.
+     */
+    Subscription[] match(Event event) {
+        Subscription[] matched = new Subscription[subscriptions.length];
+        int count = 0;
+        for (Subscription subscription : subscriptions) {
+            Subscriber subscriber = subscription.subscriber;
+            if (!(subscriber instanceof MethodSubscriber) ||
+                    ((MethodSubscriber) subscriber).accept(event)) {
+                matched[count++] = subscription;
+            }
+        }
+
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        return count < matched.length ? Arrays.copyOf(matched, count) : matched;
+    }
+}
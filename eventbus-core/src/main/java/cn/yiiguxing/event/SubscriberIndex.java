@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import cn.yiiguxing.event.internal.SubscribeRegister;
+
+/**
+ * SubscriberIndex
+ * <p/>
+ * Maps the subscriber classes of a module to their generated registers, so that the event bus
+ * finds them without reflection. The annotation processor generates an index when the name of
+ * the index class is given with the <code>eventBusIndex</code> option, e.g.
+ * <code>-AeventBusIndex=com.example.MyEventBusIndex</code>. Add it to an event bus with
+ * {@link EventBus.Builder#addIndex(SubscriberIndex)}.
+ */
+public interface SubscriberIndex {
+
+    /**
+     * Returns the register generated for exactly the given class, or null if the index does
+     * not contain it.
+     */
+    @Nullable
+    SubscribeRegister<?> getRegister(@NonNull Class<?> subscriberClass);
+
+}
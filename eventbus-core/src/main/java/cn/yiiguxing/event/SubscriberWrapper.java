@@ -30,7 +30,13 @@ class SubscriberWrapper implements Subscriber {
 
     @Override
     public void onEvent(@NonNull Event event) {
-        mSubscriber.onEvent(event);
+        try {
+            mSubscriber.onEvent(event);
+        } catch (RuntimeException | Error e) {
+            if (!event.onDeliveryFailed(mSubscriber, e)) {
+                throw e;
+            }
+        }
         event.requestRecycle();
     }
 
@@ -24,12 +24,35 @@ class Subscription {
 
     final Subscriber subscriber;
     final String tag;
+    /**
+     * The type subscribed to, see {@link EventBus#registerForType(Subscriber, Class,
+     * ThreadMode)}, <code>null</code> for a subscription to a tag.
+     */
+    final Class<?> type;
     final EventHandler eventHandler;
+    /**
+     * Key of this subscription in the subscriber index.
+     */
+    final Object key;
 
     public Subscription(Subscriber subscriber, String tag, EventHandler handler) {
+        this(subscriber, tag, handler, subscriber);
+    }
+
+    public Subscription(Subscriber subscriber, String tag, EventHandler handler, Object key) {
+        this(subscriber, tag, null, handler, key);
+    }
+
+    public Subscription(Subscriber subscriber,
+                        String tag,
+                        Class<?> type,
+                        EventHandler handler,
+                        Object key) {
         this.subscriber = subscriber;
         this.tag = tag;
+        this.type = type;
         this.eventHandler = handler;
+        this.key = key;
     }
 
     @Override
@@ -38,13 +61,16 @@ class Subscription {
         if (o == null || getClass() != o.getClass()) return false;
 
         Subscription that = (Subscription) o;
-        return subscriber.equals(that.subscriber) && tag.equals(that.tag);
+        return subscriber.equals(that.subscriber)
+                && (tag != null ? tag.equals(that.tag) : that.tag == null)
+                && type == that.type;
     }
 
     @Override
     public int hashCode() {
         int result = subscriber != null ? subscriber.hashCode() : 0;
         result = 31 * result + (tag != null ? tag.hashCode() : 0);
+        result = 31 * result + (type != null ? type.hashCode() : 0);
         return result;
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SubscriptionReaper
+ * <p/>
+ * A daemon thread which removes the subscriptions of collected targets. The {@link TargetKey}s
+ * of the subscriber index are registered with {@link #QUEUE}, once a target is collected the
+ * reaper takes its key from the queue, together with all other keys already enqueued, and
+ * purges them from their event bus in one batch.
+ */
+final class SubscriptionReaper implements Runnable {
+
+    private static final String TAG = "EventBus";
+
+    static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+    private static Thread sThread;
+
+    private SubscriptionReaper() {
+    }
+
+    /**
+     * Starts the reaper thread if it is not running.
+     */
+    static synchronized void ensureStarted() {
+        if (sThread == null) {
+            sThread = new Thread(new SubscriptionReaper(), "EventBus-Reaper");
+            sThread.setDaemon(true);
+            sThread.start();
+        }
+    }
+
+    @Override
+    public void run() {
+        Map<EventBus, List<TargetKey>> batches = new IdentityHashMap<>();
+        while (true) {
+            try {
+                Reference<?> reference = QUEUE.remove();
+                do {
+                    TargetKey key = (TargetKey) reference;
+                    List<TargetKey> batch = batches.get(key.bus);
+                    if (batch == null) {
+                        batch = new ArrayList<>();
+                        batches.put(key.bus, batch);
+                    }
+                    batch.add(key);
+                } while ((reference = QUEUE.poll()) != null);
+
+                for (Map.Entry<EventBus, List<TargetKey>> entry : batches.entrySet()) {
+                    purge(entry.getKey(), entry.getValue());
+                }
+            } catch (InterruptedException ignored) {
+            } finally {
+                batches.clear();
+            }
+        }
+    }
+
+    private static void purge(EventBus bus, List<TargetKey> keys) {
+        try {
+            bus.purge(keys);
+        } catch (RuntimeException e) {
+            bus.getPlatform().logWarning(TAG, "Failed to purge collected subscribers.", e);
+        }
+    }
+}
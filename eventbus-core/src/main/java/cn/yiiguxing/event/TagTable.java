@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+
+/**
+ * TagTable
+ * <p/>
+ * Assigns dense integer IDs to the tags of a module, so that the {@link Channel} of a tag is
+ * looked up by an array load instead of hashing the tag, see
+ * {@link EventBus#getChannel(int)}. The annotation processor generates a table with a constant
+ * per declared tag when the name of the table class is given with the <code>eventBusTags</code>
+ * option, e.g. <code>-AeventBusTags=com.example.MyEventBusTags</code>. Set it to an event bus
+ * with {@link EventBus.Builder#setTagTable(TagTable)}.
+ * <p/>
+ * The IDs of a generated table are the positions of its tags in sorted order. They are not
+ * stable: adding a tag renumbers the tags sorted after it, and the tables of two modules
+ * overlap. Use the constants of a table only with an event bus built with that same table,
+ * never persist them or pass them between modules.
+ */
+public interface TagTable {
+
+    /**
+     * Returns the tags indexed by their IDs.
+     */
+    @NonNull
+    String[] getTags();
+
+}
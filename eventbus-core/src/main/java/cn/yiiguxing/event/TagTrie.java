@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TagTrie
+ * <p/>
+ * Segment trie of the tag patterns of an event bus. Tags are split into segments at
+ * <code>'.'</code>, a <code>"*"</code> segment of a pattern matches exactly one segment and a
+ * <code>"**"</code> segment matches any number of segments, none included, e.g.
+ * <code>"net.*"</code> matches <code>"net.download"</code> and <code>"net.**"</code> also
+ * matches <code>"net"</code> and <code>"net.download.done"</code>. Guarded by the lock of the
+ * routes of the event bus.
+ */
+final class TagTrie {
+
+    static final String ANY_SEGMENT = "*";
+    static final String ANY_SEGMENTS = "**";
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        /**
+         * Route of the pattern ending at this node, <code>null</code> if none.
+         */
+        Route route;
+
+        boolean isEmpty() {
+            return route == null && children.isEmpty();
+        }
+    }
+
+    private final Node mRoot = new Node();
+    private int mSize;
+
+    /**
+     * Returns whether the given tag is a pattern, i.e. has a wildcard segment.
+     */
+    static boolean isPattern(String tag) {
+        if (tag == null || tag.indexOf('*') < 0) {
+            return false;
+        }
+
+        for (String segment : split(tag)) {
+            if (ANY_SEGMENT.equals(segment) || ANY_SEGMENTS.equals(segment)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns whether the given pattern matches the given tag.
+     */
+    static boolean matches(String pattern, String tag) {
+        return matches(split(pattern), 0, split(tag), 0);
+    }
+
+    private static boolean matches(String[] pattern, int p, String[] tag, int t) {
+        if (p == pattern.length) {
+            return t == tag.length;
+        }
+
+        String segment = pattern[p];
+        if (ANY_SEGMENTS.equals(segment)) {
+            for (int i = t; i <= tag.length; i++) {
+                if (matches(pattern, p + 1, tag, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        return t < tag.length
+                && (ANY_SEGMENT.equals(segment) || segment.equals(tag[t]))
+                && matches(pattern, p + 1, tag, t + 1);
+    }
+
+    private static String[] split(String tag) {
+        return tag.split("\\.", -1);
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Sets the route of the given pattern, <code>null</code> to remove it.
+     */
+    void put(String pattern, Route route) {
+        put(mRoot, split(pattern), 0, route);
+    }
+
+    private void put(Node node, String[] segments, int index, Route route) {
+        if (index == segments.length) {
+            if (node.route == null && route != null) {
+                mSize++;
+            } else if (node.route != null && route == null) {
+                mSize--;
+            }
+            node.route = route;
+            return;
+        }
+
+        String segment = segments[index];
+        Node child = node.children.get(segment);
+        if (child == null) {
+            if (route == null) {
+                return;
+            }
+            child = new Node();
+            node.children.put(segment, child);
+        }
+
+        put(child, segments, index + 1, route);
+        if (child.isEmpty()) {
+            node.children.remove(segment);
+        }
+    }
+
+    /**
+     * Collects the subscriptions of the patterns which match the given tag, the tag must not be
+     * a pattern itself.
+     */
+    void match(String tag, List<Subscription> out) {
+        match(mRoot, split(tag), 0, out);
+    }
+
+    private static void match(Node node, String[] segments, int index, List<Subscription> out) {
+        Node anySegments = node.children.get(ANY_SEGMENTS);
+        if (anySegments != null) {
+            for (int i = index; i <= segments.length; i++) {
+                match(anySegments, segments, i, out);
+            }
+        }
+
+        if (index == segments.length) {
+            if (node.route != null) {
+                Collections.addAll(out, node.route.subscriptions);
+            }
+            return;
+        }
+
+        Node child = node.children.get(segments[index]);
+        if (child != null) {
+            match(child, segments, index + 1, out);
+        }
+        Node anySegment = node.children.get(ANY_SEGMENT);
+        if (anySegment != null) {
+            match(anySegment, segments, index + 1, out);
+        }
+    }
+}
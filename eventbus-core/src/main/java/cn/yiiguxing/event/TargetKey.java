@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * TargetKey
+ * <p/>
+ * Weak key of the target of {@link UnstableSubscriber}s in the subscriber index, so the index
+ * never keeps a target alive. Keys stored in the index are registered with the
+ * {@link SubscriptionReaper}, keys used as lookup probes are not.
+ */
+final class TargetKey extends WeakReference<Object> {
+
+    /**
+     * The event bus whose index holds this key, <code>null</code> for probes.
+     */
+    @Nullable
+    final EventBus bus;
+    private final int mHashCode;
+
+    /**
+     * Creates a probe key.
+     */
+    TargetKey(@NonNull Object target) {
+        super(target);
+        bus = null;
+        mHashCode = target.hashCode();
+    }
+
+    /**
+     * Creates a key which is enqueued to the {@link SubscriptionReaper} once the target is
+     * collected.
+     */
+    TargetKey(@NonNull Object target, @NonNull EventBus bus) {
+        super(target, SubscriptionReaper.QUEUE);
+        this.bus = bus;
+        mHashCode = target.hashCode();
+        SubscriptionReaper.ensureStarted();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TargetKey)) return false;
+
+        TargetKey that = (TargetKey) o;
+        if (mHashCode != that.mHashCode) return false;
+
+        Object target = get();
+        return target != null && target.equals(that.get());
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+}
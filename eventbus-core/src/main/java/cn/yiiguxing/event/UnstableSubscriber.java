@@ -49,7 +49,13 @@ public abstract class UnstableSubscriber<T> implements Subscriber {
     public void onEvent(@NonNull Event event) {
         T unstable = getUnstable();
         if (unstable != null) {
-            onEvent(unstable, event);
+            try {
+                onEvent(unstable, event);
+            } catch (RuntimeException | Error e) {
+                if (!event.onDeliveryFailed(this, e)) {
+                    throw e;
+                }
+            }
         }
 
         event.requestRecycle();
@@ -13,13 +13,14 @@
 
 package cn.yiiguxing.event.handler;
 
-import android.os.AsyncTask;
 import android.support.annotation.NonNull;
 import android.support.annotation.WorkerThread;
 
+import java.util.List;
 import java.util.concurrent.Executor;
 
 import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.Platform;
 import cn.yiiguxing.event.Subscriber;
 
 /**
@@ -29,26 +30,45 @@ import cn.yiiguxing.event.Subscriber;
  */
 public class AsyncEventHandler extends SimpleEventHandler {
 
-    private Executor mExecutor;
+    private final Executor mExecutor;
 
     public AsyncEventHandler() {
-        this(AsyncTask.THREAD_POOL_EXECUTOR);
+        this(Platform.get().getDefaultAsyncExecutor());
     }
 
     public AsyncEventHandler(@NonNull Executor mExecutor) {
         this.mExecutor = mExecutor;
     }
 
+    @NonNull
+    protected final Executor getExecutor() {
+        return mExecutor;
+    }
+
     @Override
     public void handlerEvent(@NonNull final Subscriber subscriber, @NonNull final Event event) {
-        new AsyncTask<Void, Void, Void>() {
-
+        mExecutor.execute(new Runnable() {
             @Override
-            protected Void doInBackground(Void... params) {
+            public void run() {
                 onHandlerEvent(subscriber, event);
-                return null;
             }
-        }.executeOnExecutor(mExecutor);
+        });
+    }
+
+    /**
+     * Handles the whole batch with one executor task.
+     */
+    @Override
+    public void handlerEvents(@NonNull final Subscriber subscriber,
+                              @NonNull final List<Event> events) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Event event : events) {
+                    onHandlerEvent(subscriber, event);
+                }
+            }
+        });
     }
 
     @WorkerThread
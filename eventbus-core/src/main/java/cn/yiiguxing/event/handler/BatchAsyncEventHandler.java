@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.handler;
+
+import android.support.annotation.NonNull;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.Subscriber;
+
+/**
+ * BatchAsyncEventHandler
+ * <p/>
+ * Queues deliveries and drains them on the executor in batches, so a burst of events costs one
+ * executor task per batch instead of one per delivery. At most one drain task runs at a time,
+ * deliveries are therefore handled one after another in posting order.
+ */
+public class BatchAsyncEventHandler extends AsyncEventHandler {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final Queue<Delivery> mQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+    private final int mBatchSize;
+
+    private final Runnable mDrainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    public BatchAsyncEventHandler() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchAsyncEventHandler(int batchSize) {
+        super();
+        mBatchSize = checkBatchSize(batchSize);
+    }
+
+    public BatchAsyncEventHandler(@NonNull Executor executor, int batchSize) {
+        super(executor);
+        mBatchSize = checkBatchSize(batchSize);
+    }
+
+    private static int checkBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize <= 0 : " + batchSize);
+        }
+
+        return batchSize;
+    }
+
+    @Override
+    public void handlerEvent(@NonNull Subscriber subscriber, @NonNull Event event) {
+        mQueue.offer(new Delivery(subscriber, event));
+        schedule();
+    }
+
+    @Override
+    public void handlerEvents(@NonNull Subscriber subscriber, @NonNull List<Event> events) {
+        for (Event event : events) {
+            mQueue.offer(new Delivery(subscriber, event));
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (mScheduled.compareAndSet(false, true)) {
+            try {
+                getExecutor().execute(mDrainTask);
+            } catch (RuntimeException e) {
+                mScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < mBatchSize; i++) {
+                Delivery delivery = mQueue.poll();
+                if (delivery == null) {
+                    break;
+                }
+
+                onHandlerEvent(delivery.subscriber, delivery.event);
+            }
+        } finally {
+            // Yield the executor between batches, deliveries queued meanwhile are picked up by
+            // the next drain task.
+            mScheduled.set(false);
+            if (!mQueue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
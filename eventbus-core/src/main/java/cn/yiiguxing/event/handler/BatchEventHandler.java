@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.handler;
+
+import android.support.annotation.NonNull;
+
+import java.util.List;
+
+import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.Subscriber;
+
+/**
+ * BatchEventHandler
+ * <p/>
+ * An event handler which takes the events of a batch for one subscriber at once, see
+ * {@link cn.yiiguxing.event.EventBus#postAll(String, Iterable)}, so they cost one handoff to
+ * another thread instead of one per event.
+ */
+public interface BatchEventHandler extends EventHandler {
+    /**
+     * Handles the events in order, as {@link #handlerEvent(Subscriber, Event)} would one by one.
+     */
+    void handlerEvents(@NonNull Subscriber subscriber, @NonNull List<Event> events);
+}
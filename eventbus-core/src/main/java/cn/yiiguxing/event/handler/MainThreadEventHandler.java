@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.handler;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.Platform;
+import cn.yiiguxing.event.Subscriber;
+
+/**
+ * MainThreadEventHandler
+ * <p/>
+ * Handles events on the main thread of a {@link Platform}, directly if they are posted on it,
+ * through the main thread executor of the platform otherwise.
+ */
+public class MainThreadEventHandler extends SimpleEventHandler {
+
+    private final Platform mPlatform;
+    private final Executor mExecutor;
+
+    public MainThreadEventHandler(@NonNull Platform platform, @NonNull Executor executor) {
+        mPlatform = platform;
+        mExecutor = executor;
+    }
+
+    @Override
+    public final void handlerEvent(@NonNull final Subscriber subscriber, @NonNull final Event event) {
+        if (!mPlatform.isMainThread()) {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    onHandlerEvent(subscriber, event);
+                }
+            });
+        } else {
+            onHandlerEvent(subscriber, event);
+        }
+    }
+
+    @Override
+    public final void handlerEvents(@NonNull final Subscriber subscriber,
+                                    @NonNull final List<Event> events) {
+        if (!mPlatform.isMainThread()) {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    onHandlerEvents(subscriber, events);
+                }
+            });
+        } else {
+            onHandlerEvents(subscriber, events);
+        }
+    }
+
+    @MainThread
+    private void onHandlerEvents(@NonNull Subscriber subscriber, @NonNull List<Event> events) {
+        for (Event event : events) {
+            onHandlerEvent(subscriber, event);
+        }
+    }
+
+    @MainThread
+    protected void onHandlerEvent(@NonNull final Subscriber subscriber, @NonNull final Event event) {
+        super.handlerEvent(subscriber, event);
+    }
+
+}
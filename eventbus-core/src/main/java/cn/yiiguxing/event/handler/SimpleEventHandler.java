@@ -15,6 +15,8 @@ package cn.yiiguxing.event.handler;
 
 import android.support.annotation.NonNull;
 
+import java.util.List;
+
 import cn.yiiguxing.event.Event;
 import cn.yiiguxing.event.Subscriber;
 
@@ -23,11 +25,18 @@ import cn.yiiguxing.event.Subscriber;
  * <p>
  * Created by Yii.Guxing on 16/1/27.
  */
-public class SimpleEventHandler implements EventHandler {
+public class SimpleEventHandler implements BatchEventHandler {
 
     @Override
     public void handlerEvent(@NonNull final Subscriber subscriber, @NonNull final Event event) {
         subscriber.onEvent(event);
     }
 
+    @Override
+    public void handlerEvents(@NonNull Subscriber subscriber, @NonNull List<Event> events) {
+        for (Event event : events) {
+            handlerEvent(subscriber, event);
+        }
+    }
+
 }
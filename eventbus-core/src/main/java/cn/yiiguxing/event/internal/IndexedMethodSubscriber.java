@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.internal;
+
+import android.support.annotation.NonNull;
+
+import cn.yiiguxing.event.Event;
+
+/**
+ * IndexedMethodSubscriber
+ * <p/>
+ * A method subscriber which delegates to the {@link MethodDispatcher} of its target class, so
+ * the subscriber methods of a class share one generated class instead of one each.
+ */
+public final class IndexedMethodSubscriber<T> extends MethodSubscriber<T> {
+
+    private final MethodDispatcher<T> dispatcher;
+    private final int index;
+
+    public IndexedMethodSubscriber(@NonNull T unstable, @NonNull String method,
+                                   @NonNull MethodDispatcher<T> dispatcher, int index) {
+        super(unstable, method);
+        this.dispatcher = dispatcher;
+        this.index = index;
+    }
+
+    @Override
+    public boolean accept(@NonNull Event event) {
+        return dispatcher.accept(index, event);
+    }
+
+    @Override
+    protected void handlerEvent(@NonNull T unstable, @NonNull Event event) throws Throwable {
+        dispatcher.dispatch(unstable, index, event);
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.internal;
+
+import android.support.annotation.NonNull;
+
+import cn.yiiguxing.event.Event;
+
+/**
+ * MethodDispatcher
+ * <p/>
+ * Accepts and handles the events of all subscriber methods of a target class, the methods are
+ * identified by their index. Generated once per target class in the dispatcher code generation
+ * mode, see {@link IndexedMethodSubscriber}.
+ */
+public interface MethodDispatcher<T> {
+
+    /**
+     * @see MethodSubscriber#accept(Event)
+     */
+    boolean accept(int method, @NonNull Event event);
+
+    void dispatch(@NonNull T target, int method, @NonNull Event event) throws Throwable;
+
+}
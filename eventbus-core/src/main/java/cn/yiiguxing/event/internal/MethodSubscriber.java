@@ -32,6 +32,11 @@ public abstract class MethodSubscriber<T> extends UnstableSubscriber<T> {
         this.method = method;
     }
 
+    /**
+     * Returns whether this subscriber can receive the given event. The result must only depend
+     * on the length of the event data and the runtime classes of its elements, the event bus
+     * caches it per data shape.
+     */
     public abstract boolean accept(@NonNull Event event);
 
     protected void onEvent(@NonNull T unstable, @NonNull Event event) {
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import cn.yiiguxing.event.internal.MethodSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ChannelTest {
+
+    private final Object mTarget = new Object();
+    private final EventBus mBus = new EventBus.Builder("test").create();
+
+    @Test
+    public void shape_isCreatedOncePerTypes() throws Exception {
+        Channel channel = mBus.getChannel("a");
+
+        assertSame(channel.shape(String.class, int.class), channel.shape(String.class, int.class));
+    }
+
+    @Test
+    public void shape_resolvesSubscriptionsOncePerRoute() throws Exception {
+        TypeSubscriber string = new TypeSubscriber(mTarget, String.class);
+        mBus.register(string, "a", ThreadMode.POST);
+        Channel.Shape shape = mBus.getChannel("a").shape(String.class);
+
+        shape.post("x");
+        shape.post("y");
+        assertEquals(1, string.accepts);
+        assertEquals(2, string.received);
+
+        TypeSubscriber integer = new TypeSubscriber(mTarget, Integer.class);
+        mBus.register(integer, "a", ThreadMode.POST);
+        shape.post("z");
+        shape.post("z");
+        assertEquals(2, string.accepts);
+        assertEquals(4, string.received);
+        assertEquals(0, integer.received);
+    }
+
+    @Test
+    public void shape_withNullData_isMatchedPerEvent() throws Exception {
+        TypeSubscriber string = new TypeSubscriber(mTarget, String.class);
+        mBus.register(string, "a", ThreadMode.POST);
+        Channel.Shape shape = mBus.getChannel("a").shape(String.class);
+
+        shape.post("x");
+        shape.post((Object) null);
+        shape.post("y");
+
+        assertEquals(2, string.received);
+    }
+
+    @Test
+    public void shape_ofNonFinalType_isMatchedPerEvent() throws Exception {
+        TypeSubscriber string = new TypeSubscriber(mTarget, String.class);
+        mBus.register(string, "a", ThreadMode.POST);
+        Channel.Shape shape = mBus.getChannel("a").shape(CharSequence.class);
+
+        shape.post(new StringBuilder("x"));
+        shape.post("y");
+
+        assertEquals(1, string.received);
+    }
+
+    private static class TypeSubscriber extends MethodSubscriber<Object> {
+
+        final Class<?> type;
+        int accepts;
+        int received;
+
+        TypeSubscriber(Object target, Class<?> type) {
+            super(target, type.getName());
+            this.type = type;
+        }
+
+        @Override
+        public boolean accept(@NonNull Event event) {
+            accepts++;
+            Object[] data = event.getData();
+            return data != null && data.length == 1 && type.isInstance(data[0]);
+        }
+
+        @Override
+        protected void handlerEvent(@NonNull Object unstable, @NonNull Event event) {
+            received++;
+        }
+    }
+}
@@ -0,0 +1,489 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cn.yiiguxing.event.internal.SubscribeRegister;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventBusTest {
+
+    private final EventBus mBus = new EventBus.Builder("test").create();
+
+    @Test
+    public void unregisterSubscriber_removesAllTags() throws Exception {
+        CountingSubscriber subscriber = new CountingSubscriber();
+        mBus.register(subscriber, "a", ThreadMode.POST);
+        mBus.register(subscriber, "b", ThreadMode.POST);
+
+        mBus.post("a");
+        mBus.post("b");
+        mBus.unregister(subscriber);
+        mBus.post("a");
+        mBus.post("b");
+
+        assertEquals(2, subscriber.count);
+    }
+
+    @Test
+    public void unregisterTarget_removesUnstableSubscribers() throws Exception {
+        Object target = new Object();
+        CountingUnstableSubscriber first = new CountingUnstableSubscriber(target);
+        CountingUnstableSubscriber other = new CountingUnstableSubscriber(new Object());
+        mBus.register(first, "a", ThreadMode.POST);
+        mBus.register(other, "a", ThreadMode.POST);
+
+        mBus.unregister(target);
+        mBus.post("a");
+
+        assertEquals(0, first.count);
+        assertEquals(1, other.count);
+    }
+
+    @Test
+    public void collectedTargets_arePurged() throws Exception {
+        mBus.register(new CountingUnstableSubscriber(new Object()), "a", ThreadMode.POST);
+        mBus.register(new CountingUnstableSubscriber(new Object()), "b", ThreadMode.POST);
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (mBus.getReclaimedCount() < 2 && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, mBus.getReclaimedCount());
+    }
+
+    @Test
+    public void channel_followsRouteChanges() throws Exception {
+        Channel channel = mBus.getChannel("a");
+        CountingSubscriber subscriber = new CountingSubscriber();
+
+        channel.post("data");
+        mBus.register(subscriber, "a", ThreadMode.POST);
+        channel.post("data");
+        channel.post("data", 1);
+        mBus.unregister(subscriber);
+        channel.post("data");
+
+        assertEquals(2, subscriber.count);
+    }
+
+    @Test
+    public void channelById_isChannelOfTag() throws Exception {
+        EventBus bus = new EventBus.Builder("test")
+                .setTagTable(new TagTable() {
+                    @NonNull
+                    @Override
+                    public String[] getTags() {
+                        return new String[]{"a", "b"};
+                    }
+                })
+                .create();
+        CountingSubscriber subscriber = new CountingSubscriber();
+        bus.register(subscriber, "b", ThreadMode.POST);
+
+        bus.getChannel(0).post();
+        bus.getChannel(1).post();
+
+        assertSame(bus.getChannel("b"), bus.getChannel(1));
+        assertEquals(1, subscriber.count);
+    }
+
+    @Test
+    public void unroutedEvents_goToDeadEventSink() throws Exception {
+        CountingSubscriber sink = new CountingSubscriber();
+        EventBus bus = new EventBus.Builder("test").setDeadEventSink(sink).create();
+        CountingSubscriber subscriber = new CountingSubscriber();
+        bus.register(subscriber, "a", ThreadMode.POST);
+
+        bus.post("a");
+        bus.post("b");
+        bus.post("b", 1);
+        bus.getChannel("c").post("data");
+
+        assertEquals(1, subscriber.count);
+        assertEquals(3, sink.count);
+    }
+
+    @Test
+    public void unstableDeadEventSink_doesNotRecycleEventTwice() throws Exception {
+        Object target = new Object();
+        CountingUnstableSubscriber sink = new CountingUnstableSubscriber(target);
+        EventBus bus = new EventBus.Builder("test").setDeadEventSink(sink).create();
+
+        bus.post("b", 1);
+        bus.post("b", 2);
+
+        assertEquals(2, sink.count);
+        assertNotSame(Event.obtain(bus, "x"), Event.obtain(bus, "y"));
+    }
+
+    @Test
+    public void nestedPosts_areQueuedInOrderWithTheirOwnRoute() throws Exception {
+        final StringBuilder received = new StringBuilder();
+        mBus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                for (int i = 0; i < 40; i++) {
+                    mBus.post("inner", i);
+                }
+                received.append("outer;");
+            }
+        }, "outer", ThreadMode.POST);
+        mBus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                received.append(event.getInt()).append(';');
+            }
+        }, "inner", ThreadMode.POST);
+
+        mBus.post("outer");
+        mBus.post("outer");
+
+        StringBuilder expected = new StringBuilder();
+        for (int n = 0; n < 2; n++) {
+            expected.append("outer;");
+            for (int i = 0; i < 40; i++) {
+                expected.append(i).append(';');
+            }
+        }
+        assertEquals(expected.toString(), received.toString());
+    }
+
+    @Test
+    public void postAsync_completesAfterAllDeliveries() throws Exception {
+        final AtomicInteger handled = new AtomicInteger();
+        mBus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                handled.incrementAndGet();
+            }
+        }, "a", ThreadMode.ASYNC);
+        mBus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                throw new IllegalStateException("failure");
+            }
+        }, "a", ThreadMode.POST);
+
+        PostFuture future = mBus.postAsync("a", 1);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("failure", e.getCause().getMessage());
+        }
+
+        assertEquals(1, handled.get());
+        assertEquals(1, future.getFailures().size());
+    }
+
+    @Test
+    public void postAsync_reportsAllFailures() throws Exception {
+        for (final String message : new String[]{"first", "second"}) {
+            mBus.register(new Subscriber() {
+                @Override
+                public void onEvent(@NonNull Event event) {
+                    throw new IllegalStateException(message);
+                }
+            }, "a", ThreadMode.POST);
+        }
+
+        PostFuture future = mBus.postAsync("a", 1);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("first", e.getCause().getMessage());
+        }
+
+        assertEquals(2, future.getFailures().size());
+        assertEquals("second", future.getFailures().get(1).getError().getMessage());
+    }
+
+    @Test
+    public void postAsync_collectsRepliesOfAllSubscribers() throws Exception {
+        mBus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                event.reply("async");
+            }
+        }, "a", ThreadMode.ASYNC);
+        mBus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                event.reply("post");
+            }
+        }, "a", ThreadMode.POST);
+
+        List<Object> replies = mBus.postAsync("a", 1).getReplies(5, TimeUnit.SECONDS);
+        assertEquals(2, replies.size());
+        assertTrue(replies.containsAll(Arrays.asList("async", "post")));
+    }
+
+    @Test
+    public void requestFirst_skipsRemainingSubscribers() throws Exception {
+        final AtomicInteger handled = new AtomicInteger();
+        for (final String reply : new String[]{null, "first", "second"}) {
+            mBus.register(new Subscriber() {
+                @Override
+                public void onEvent(@NonNull Event event) {
+                    handled.incrementAndGet();
+                    event.reply(reply);
+                }
+            }, "a", ThreadMode.POST);
+        }
+
+        PostFuture future = mBus.requestFirst("a", 1);
+        assertEquals("first", future.getFirstReply(5, TimeUnit.SECONDS));
+        assertEquals(2, handled.get());
+        assertEquals(Arrays.<Object>asList(null, "first"), future.getReplies());
+    }
+
+    @Test
+    public void postAll_handsBatchToHandlerOnce() throws Exception {
+        final AtomicInteger tasks = new AtomicInteger();
+        EventBus bus = new EventBus.Builder("test")
+                .setExecutor(new Executor() {
+                    @Override
+                    public void execute(@NonNull Runnable command) {
+                        tasks.incrementAndGet();
+                        command.run();
+                    }
+                })
+                .create();
+        final List<Object> received = new ArrayList<>();
+        bus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                received.add(event.getData()[0]);
+            }
+        }, "a", ThreadMode.ASYNC);
+
+        bus.postAll("a", Arrays.asList(new Object[]{1}, new Object[]{2}, new Object[]{3}));
+
+        assertEquals(1, tasks.get());
+        assertEquals(Arrays.<Object>asList(1, 2, 3), received);
+    }
+
+    @Test
+    public void postAll_tooLongData_postsNothing() throws Exception {
+        CountingSubscriber subscriber = new CountingSubscriber();
+        mBus.register(subscriber, "a", ThreadMode.POST);
+
+        try {
+            mBus.postAll("a", Arrays.asList(new Object[]{1},
+                    new Object[EventBus.DEFAULT_MAX_DATA_LENGTH + 1]));
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(0, subscriber.count);
+
+        mBus.postAll("a", Collections.singletonList(new Object[]{2}));
+        assertEquals(1, subscriber.count);
+    }
+
+    @Test
+    public void patternSubscribers_receiveMatchingTags() throws Exception {
+        final List<String> tags = new ArrayList<>();
+        Subscriber subscriber = new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                tags.add(event.getTag());
+            }
+        };
+        Channel done = mBus.getChannel("net.download.done");
+        mBus.register(subscriber, "net.**", ThreadMode.POST);
+        mBus.register(subscriber, "net.*", ThreadMode.POST);
+
+        mBus.post("net.download", 1);
+        done.post(1);
+        mBus.post("db.query", 1);
+        mBus.post("net.*", 1);
+        assertEquals(Arrays.asList("net.download", "net.download.done"), tags);
+
+        mBus.unregister(subscriber);
+        mBus.post("net.download", 1);
+        done.post(1);
+        assertEquals(2, tags.size());
+    }
+
+    @Test
+    public void postByType_reachesSubscribersOfSupertypes() throws Exception {
+        final List<String> received = new ArrayList<>();
+        for (final Class<?> type : new Class<?>[]{Object.class, CharSequence.class,
+                String.class, Integer.class}) {
+            mBus.registerForType(new Subscriber() {
+                @Override
+                public void onEvent(@NonNull Event event) {
+                    received.add(type.getSimpleName() + ":" + event.getData()[0]);
+                }
+            }, type, ThreadMode.POST);
+        }
+
+        mBus.postByType("s");
+        assertEquals(Arrays.asList("String:s", "Object:s", "CharSequence:s"), received);
+
+        received.clear();
+        mBus.postByType(new StringBuilder("b"));
+        assertEquals(Arrays.asList("Object:b", "CharSequence:b"), received);
+    }
+
+    @Test
+    public void postByType_subscriberOfSeveralSupertypes_receivesObjectOnce() throws Exception {
+        final List<String> received = new ArrayList<>();
+        Subscriber subscriber = new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                received.add(event.getTag() + ":" + event.getData()[0]);
+            }
+        };
+        mBus.registerForType(subscriber, Object.class, ThreadMode.POST);
+        mBus.registerForType(subscriber, CharSequence.class, ThreadMode.POST);
+        mBus.registerForType(subscriber, String.class, ThreadMode.POST);
+
+        mBus.postByType("s");
+        assertEquals(Arrays.asList("java.lang.String:s"), received);
+
+        received.clear();
+        mBus.unregister(subscriber);
+        mBus.postByType("s");
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void patternSubscribers_receiveMoreTagsThanCached() throws Exception {
+        CountingSubscriber subscriber = new CountingSubscriber();
+        mBus.register(subscriber, "user.*", ThreadMode.POST);
+
+        int tags = EventBus.MAX_PATTERN_CACHE_SIZE * 2 + 1;
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < tags; i++) {
+                mBus.post("user." + i, 1);
+                mBus.post("other." + i, 1);
+            }
+        }
+
+        assertEquals(tags * 2, subscriber.count);
+    }
+
+    @Test
+    public void postByType_isNotMatchedByTagPatterns() throws Exception {
+        final List<String> tags = new ArrayList<>();
+        mBus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                tags.add(event.getTag());
+            }
+        }, "**", ThreadMode.POST);
+        CountingSubscriber typed = new CountingSubscriber();
+        mBus.registerForType(typed, String.class, ThreadMode.POST);
+
+        mBus.postByType("s");
+        mBus.post("net.download", 1);
+
+        assertEquals(1, typed.count);
+        assertEquals(Arrays.asList("net.download"), tags);
+    }
+
+    @Test
+    public void tagLikeTypeName_isMatchedByTagPatterns() throws Exception {
+        CountingSubscriber subscriber = new CountingSubscriber();
+        mBus.register(subscriber, "type:foo.*", ThreadMode.POST);
+
+        mBus.post("type:foo.bar", 1);
+        mBus.postByType("s");
+
+        assertEquals(1, subscriber.count);
+    }
+
+    @Test
+    public void registerTarget_usesSubscriberIndex() throws Exception {
+        final IndexedTarget target = new IndexedTarget();
+        EventBus bus = new EventBus.Builder("test")
+                .addIndex(new SubscriberIndex() {
+                    @Override
+                    public SubscribeRegister<?> getRegister(@NonNull Class<?> subscriberClass) {
+                        return subscriberClass == IndexedTarget.class
+                                ? new IndexedTargetRegister()
+                                : null;
+                    }
+                })
+                .create();
+
+        bus.register(target);
+        bus.post("a");
+        bus.unregister(target);
+        bus.post("a");
+
+        assertEquals(1, target.subscriber.count);
+    }
+
+    private static class IndexedTarget {
+        CountingUnstableSubscriber subscriber;
+    }
+
+    private static class IndexedTargetRegister implements SubscribeRegister<IndexedTarget> {
+        @Override
+        public void register(EventBus eventBus, IndexedTarget target) {
+            target.subscriber = new CountingUnstableSubscriber(target);
+            eventBus.register(target.subscriber, "a", ThreadMode.POST);
+        }
+    }
+
+    private static class CountingSubscriber implements Subscriber {
+        int count;
+
+        @Override
+        public void onEvent(@NonNull Event event) {
+            count++;
+        }
+    }
+
+    private static class CountingUnstableSubscriber extends UnstableSubscriber<Object> {
+        int count;
+
+        CountingUnstableSubscriber(@NonNull Object unstable) {
+            super(unstable);
+        }
+
+        @Override
+        protected void onEvent(@NonNull Object unstable, @NonNull Event event) {
+            count++;
+        }
+    }
+}
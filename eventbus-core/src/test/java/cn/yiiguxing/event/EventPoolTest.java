@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class EventPoolTest {
+
+    @Test
+    public void obtain_reusesRecycledEvent() throws Exception {
+        EventBus bus = new EventBus.Builder("test").create();
+        Event event = Event.obtain(bus, "tag", 1);
+        event.recycle();
+
+        Event reused = Event.obtain(bus, "other", 2);
+
+        assertSame(event, reused);
+        assertEquals("other", reused.getTag());
+        assertEquals(false, reused.isRecycled());
+    }
+
+    @Test
+    public void obtain_zeroCapacityNeverPools() throws Exception {
+        EventBus bus = new EventBus.Builder("test").setEventPoolCapacity(0).create();
+        Event event = Event.obtain(bus, "tag", 1);
+        event.recycle();
+
+        assertNotSame(event, Event.obtain(bus, "tag", 1));
+    }
+
+    @Test
+    public void recycle_flowsBetweenThreadsThroughDepot() throws Exception {
+        final EventPool pool = new EventPool(32);
+        final Event[] events = new Event[32];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new Event(null);
+        }
+
+        Thread recycler = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (Event event : events) {
+                    pool.recycle(event);
+                }
+            }
+        });
+        recycler.start();
+        recycler.join();
+
+        // The recycler's first full magazine was handed to the depot.
+        for (int i = 0; i < 16; i++) {
+            assertSame(events[15 - i], pool.obtain());
+        }
+        assertNull(pool.obtain());
+    }
+
+    @Test
+    public void statistics_countHitsAndMisses() throws Exception {
+        EventPool pool = new EventPool(16);
+        for (int i = 0; i < 32; i++) {
+            assertNull(pool.obtain());
+            pool.recycle(new Event(null));
+            pool.obtain();
+        }
+
+        assertEquals(32, pool.getHitCount());
+        assertEquals(32, pool.getMissCount());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JvmPlatformTest {
+
+    private ExecutorService mMainThread;
+
+    @Before
+    public void setUp() {
+        mMainThread = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        mMainThread.shutdown();
+    }
+
+    @Test
+    public void mainSubscriber_handledOnMainThreadExecutor() throws Exception {
+        final JvmPlatform platform = new JvmPlatform(mMainThread);
+        EventBus bus = new EventBus.Builder("test").setPlatform(platform).create();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        bus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                if (platform.isMainThread()) {
+                    thread.set(Thread.currentThread());
+                }
+                latch.countDown();
+            }
+        }, "tag", ThreadMode.MAIN);
+
+        bus.post("tag", 1);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertSame(mainThread(), thread.get());
+        assertFalse(platform.isMainThread());
+    }
+
+    @Test
+    public void mainSubscriber_withoutMainThread_handledOnPostingThread() {
+        EventBus bus = new EventBus.Builder("test").setPlatform(new JvmPlatform()).create();
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        bus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                thread.set(Thread.currentThread());
+            }
+        }, "tag", ThreadMode.MAIN);
+
+        bus.post("tag", 1);
+
+        assertSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    public void virtualSubscriber_handledOffPostingThread() throws Exception {
+        JvmPlatform platform = new JvmPlatform();
+        EventBus bus = new EventBus.Builder("test").setPlatform(platform).create();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        bus.register(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                thread.set(Thread.currentThread());
+                latch.countDown();
+            }
+        }, "tag", ThreadMode.VIRTUAL);
+
+        bus.post("tag", 1);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), thread.get());
+        if (platform.getVirtualThreadExecutor() != null) {
+            assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread.get()));
+        }
+    }
+
+    private Thread mainThread() throws Exception {
+        return mMainThread.submit(new Callable<Thread>() {
+            @Override
+            public Thread call() {
+                return Thread.currentThread();
+            }
+        }).get();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+public class PostAllocationTest {
+
+    private static final int WARMUP_POSTS = 200000;
+    private static final int POSTS = 100000;
+    private static final int RUNS = 3;
+
+    private final EventBus mBus = new EventBus.Builder("test").create();
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 8; i++) {
+            mBus.register(new IntSubscriber(), "tag", ThreadMode.POST);
+        }
+    }
+
+    @Test
+    public void pooledPost_allocatesNothing() throws Exception {
+        final Object[] payload = {42, "payload"};
+        assertEquals(0, allocatedBytes(new Runnable() {
+            @Override
+            public void run() {
+                mBus.post("tag", payload);
+            }
+        }));
+    }
+
+    @Test
+    public void primitivePost_allocatesNothing() throws Exception {
+        assertEquals(0, allocatedBytes(new Runnable() {
+            int value;
+
+            @Override
+            public void run() {
+                mBus.post("tag", value++);
+            }
+        }));
+    }
+
+    @Test
+    public void unroutedPost_allocatesNothing() throws Exception {
+        assertEquals(0, allocatedBytes(new Runnable() {
+            int value;
+
+            @Override
+            public void run() {
+                mBus.post("unrouted", value++);
+            }
+        }));
+    }
+
+    /**
+     * Returns the bytes the current thread allocates for {@link #POSTS} posts once warmed up.
+     * A late compilation may still allocate during a run, so the best of a few runs is kept.
+     */
+    private static long allocatedBytes(Runnable post) {
+        com.sun.management.ThreadMXBean threads = threadMXBean();
+        for (int i = 0; i < WARMUP_POSTS; i++) {
+            post.run();
+        }
+
+        long thread = Thread.currentThread().getId();
+        long overhead = threads.getThreadAllocatedBytes(thread);
+        overhead = threads.getThreadAllocatedBytes(thread) - overhead;
+
+        long allocated = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS && allocated > 0; run++) {
+            long start = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < POSTS; i++) {
+                post.run();
+            }
+            allocated = Math.min(allocated,
+                    threads.getThreadAllocatedBytes(thread) - start - overhead);
+        }
+
+        return allocated;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        return threads;
+    }
+
+    private static class IntSubscriber implements Subscriber {
+        int sum;
+
+        @Override
+        public void onEvent(@NonNull Event event) {
+            if (event.getPrimitiveType() == int.class) {
+                sum += event.getInt();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import cn.yiiguxing.event.handler.SimpleEventHandler;
+import cn.yiiguxing.event.internal.MethodSubscriber;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RouteTest {
+
+    private final Object mTarget = new Object();
+
+    @Test
+    public void resolve_routesByShape() throws Exception {
+        Subscription string = subscription(new TypeSubscriber(mTarget, String.class));
+        Subscription integer = subscription(new TypeSubscriber(mTarget, Integer.class));
+        Subscription all = subscription(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+            }
+        });
+        Route route = new Route(new Subscription[]{string, integer, all});
+        EventShape probe = new EventShape(EventBus.DEFAULT_MAX_DATA_LENGTH);
+
+        assertArrayEquals(new Subscription[]{string, all},
+                route.resolve(new Event(null, "", "s"), probe));
+        assertArrayEquals(new Subscription[]{integer, all},
+                route.resolve(new Event(null, "", 1), probe));
+        assertArrayEquals(new Subscription[]{all},
+                route.resolve(new Event(null, "", 1, 2), probe));
+        assertArrayEquals(new Subscription[]{all},
+                route.resolve(new Event(null, "", (Object) null), probe));
+    }
+
+    @Test
+    public void resolve_cachesPerShape() throws Exception {
+        TypeSubscriber subscriber = new TypeSubscriber(mTarget, String.class);
+        Route route = new Route(new Subscription[]{subscription(subscriber)});
+        EventShape probe = new EventShape(EventBus.DEFAULT_MAX_DATA_LENGTH);
+
+        Subscription[] first = route.resolve(new Event(null, "", "a"), probe);
+        Subscription[] second = route.resolve(new Event(null, "", "b"), probe);
+
+        assertSame(first, second);
+        assertEquals(1, subscriber.accepts);
+    }
+
+    private static Subscription subscription(Subscriber subscriber) {
+        return new Subscription(subscriber, EventBus.DEFAULT_TAG, new SimpleEventHandler());
+    }
+
+    private static class TypeSubscriber extends MethodSubscriber<Object> {
+
+        final Class<?> type;
+        int accepts;
+
+        TypeSubscriber(Object target, Class<?> type) {
+            super(target, type.getName());
+            this.type = type;
+        }
+
+        @Override
+        public boolean accept(@NonNull Event event) {
+            accepts++;
+            Object[] data = event.getData();
+            return data != null && data.length == 1 && type.isInstance(data[0]);
+        }
+
+        @Override
+        protected void handlerEvent(@NonNull Object unstable, @NonNull Event event) {
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cn.yiiguxing.event.handler.SimpleEventHandler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TagTrieTest {
+
+    @Test
+    public void isPattern_needsWildcardSegment() throws Exception {
+        assertTrue(TagTrie.isPattern("net.*"));
+        assertTrue(TagTrie.isPattern("**"));
+        assertFalse(TagTrie.isPattern("net.download"));
+        assertFalse(TagTrie.isPattern("net.down*"));
+        assertFalse(TagTrie.isPattern(EventBus.DEFAULT_TAG));
+    }
+
+    @Test
+    public void matches_bySegments() throws Exception {
+        assertTrue(TagTrie.matches("net.*", "net.download"));
+        assertFalse(TagTrie.matches("net.*", "net"));
+        assertFalse(TagTrie.matches("net.*", "net.download.done"));
+        assertTrue(TagTrie.matches("net.**", "net"));
+        assertTrue(TagTrie.matches("net.**", "net.download.done"));
+        assertTrue(TagTrie.matches("*.download.**", "net.download.done"));
+        assertFalse(TagTrie.matches("net.**", "network"));
+    }
+
+    @Test
+    public void match_collectsMatchingPatterns() throws Exception {
+        Subscription one = subscription("net.*");
+        Subscription any = subscription("net.**");
+        Subscription other = subscription("db.*");
+        TagTrie trie = new TagTrie();
+        trie.put("net.*", new Route(new Subscription[]{one}));
+        trie.put("net.**", new Route(new Subscription[]{any}));
+        trie.put("db.*", new Route(new Subscription[]{other}));
+
+        assertEquals(Arrays.asList(any, one), match(trie, "net.download"));
+        assertEquals(Arrays.asList(any), match(trie, "net.download.done"));
+        assertEquals(Arrays.asList(any), match(trie, "net"));
+        assertEquals(Arrays.asList(other), match(trie, "db.query"));
+        assertEquals(0, match(trie, "ui").size());
+
+        trie.put("net.**", null);
+        trie.put("net.*", null);
+        assertEquals(0, match(trie, "net.download").size());
+        trie.put("db.*", null);
+        assertTrue(trie.isEmpty());
+    }
+
+    private static List<Subscription> match(TagTrie trie, String tag) {
+        List<Subscription> matched = new ArrayList<>();
+        trie.match(tag, matched);
+        return matched;
+    }
+
+    private static Subscription subscription(String pattern) {
+        return new Subscription(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+            }
+        }, pattern, new SimpleEventHandler());
+    }
+}
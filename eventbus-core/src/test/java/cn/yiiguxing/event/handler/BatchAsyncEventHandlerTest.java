@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.handler;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.Subscriber;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchAsyncEventHandlerTest {
+
+    private final List<Runnable> mTasks = new ArrayList<>();
+    private final Executor mExecutor = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mTasks.add(command);
+        }
+    };
+
+    @Test
+    public void handlerEvent_drainsInBatches() throws Exception {
+        BatchAsyncEventHandler handler = new BatchAsyncEventHandler(mExecutor, 4);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        for (int i = 0; i < 10; i++) {
+            handler.handlerEvent(subscriber, new Event(null, "", i));
+        }
+
+        assertEquals(1, mTasks.size());
+        runTasks();
+
+        // 10 deliveries in batches of 4.
+        assertEquals(3, mTasks.size());
+        assertEquals(10, subscriber.received.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, subscriber.received.get(i));
+        }
+    }
+
+    @Test
+    public void handlerEvent_recoversFromFailingSubscriber() throws Exception {
+        BatchAsyncEventHandler handler = new BatchAsyncEventHandler(mExecutor, 4);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        handler.handlerEvent(new Subscriber() {
+            @Override
+            public void onEvent(@NonNull Event event) {
+                throw new IllegalStateException();
+            }
+        }, new Event(null, "", -1));
+        handler.handlerEvent(subscriber, new Event(null, "", 0));
+
+        try {
+            mTasks.get(0).run();
+        } catch (IllegalStateException expected) {
+        }
+        runTasks();
+
+        assertEquals(1, subscriber.received.size());
+    }
+
+    private void runTasks() {
+        for (int i = 0; i < mTasks.size(); i++) {
+            mTasks.get(i).run();
+        }
+    }
+
+    private static class RecordingSubscriber implements Subscriber {
+        final List<Object> received = new ArrayList<>();
+
+        @Override
+        public void onEvent(@NonNull Event event) {
+            received.add(event.getData()[0]);
+        }
+    }
+}
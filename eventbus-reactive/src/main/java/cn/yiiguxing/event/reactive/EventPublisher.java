@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.reactive;
+
+import android.support.annotation.NonNull;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.EventBus;
+import cn.yiiguxing.event.ThreadMode;
+
+/**
+ * EventPublisher
+ * <p/>
+ * Publishes the data of the events of one tag to Reactive Streams subscribers, with
+ * <code>java.util.concurrent.Flow</code> use <code>FlowAdapters.toFlowPublisher</code>. Each
+ * subscriber is registered to the event bus on subscription and unregistered on cancellation.
+ * Events are buffered per subscriber until it requests them, up to a bound, beyond which the
+ * {@link Overflow} policy applies, so a slow subscriber never piles up delivery tasks.
+ * <p/>
+ * Elements are copies of the event data, primitive data boxed. The publisher never completes.
+ */
+public final class EventPublisher implements Publisher<Object[]> {
+
+    /**
+     * What to do with an event when the buffer of a subscriber is full.
+     */
+    public enum Overflow {
+        /**
+         * Drops the new event.
+         */
+        DROP,
+        /**
+         * Drops the oldest buffered event, so the subscriber receives the latest events.
+         */
+        LATEST
+    }
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private final EventBus mBus;
+    private final String mTag;
+    private final int mBufferSize;
+    private final Overflow mOverflow;
+
+    /**
+     * @param bus        the event bus.
+     * @param tag        the event tag.
+     * @param bufferSize the number of events buffered per subscriber.
+     * @param overflow   the policy applied when the buffer is full.
+     * @throws IllegalStateException if <code>bufferSize <= 0</code>.
+     */
+    public EventPublisher(@NonNull EventBus bus,
+                          @NonNull String tag,
+                          int bufferSize,
+                          @NonNull Overflow overflow) {
+        if (bufferSize <= 0) {
+            throw new IllegalStateException("bufferSize <= 0 : " + bufferSize);
+        }
+
+        mBus = bus;
+        mTag = tag;
+        mBufferSize = bufferSize;
+        mOverflow = overflow;
+    }
+
+    @Override
+    @SuppressWarnings("all")
+    public void subscribe(Subscriber<? super Object[]> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber = null.");
+        }
+
+        TagSubscription subscription = new TagSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        if (!subscription.cancelled) {
+            mBus.register(subscription, mTag, ThreadMode.POST);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EventPublisher{" +
+                "mBus=" + mBus +
+                ", mTag='" + mTag + '\'' +
+                ", mBufferSize=" + mBufferSize +
+                ", mOverflow=" + mOverflow +
+                '}';
+    }
+
+    /**
+     * The subscription of one subscriber, receives the events on the posting threads and emits
+     * them as they are requested. Emission is serialized by {@link #mWip}, on the thread which
+     * posts or requests.
+     */
+    private final class TagSubscription implements cn.yiiguxing.event.Subscriber, Subscription {
+
+        private final Subscriber<? super Object[]> mDownstream;
+        /**
+         * Guarded by itself.
+         */
+        private final ArrayDeque<Object[]> mBuffer = new ArrayDeque<>();
+        private final AtomicLong mRequested = new AtomicLong();
+        private final AtomicInteger mWip = new AtomicInteger();
+
+        volatile boolean cancelled;
+
+        TagSubscription(Subscriber<? super Object[]> downstream) {
+            mDownstream = downstream;
+        }
+
+        @Override
+        public void onEvent(@NonNull Event event) {
+            if (cancelled) {
+                return;
+            }
+
+            Object[] data = event.getData();
+            // The data may be owned by the pooled event, so it is copied.
+            data = data == null ? EMPTY : data.clone();
+            synchronized (mBuffer) {
+                if (mBuffer.size() >= mBufferSize) {
+                    if (mOverflow == Overflow.DROP) {
+                        return;
+                    }
+                    mBuffer.poll();
+                }
+                mBuffer.offer(data);
+            }
+
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                mDownstream.onError(new IllegalArgumentException(
+                        "Non-positive request signals are illegal : " + n));
+                return;
+            }
+
+            long requested;
+            long next;
+            do {
+                requested = mRequested.get();
+                next = requested + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+            } while (!mRequested.compareAndSet(requested, next));
+
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+
+            cancelled = true;
+            mBus.unregister(this);
+            synchronized (mBuffer) {
+                mBuffer.clear();
+            }
+        }
+
+        private void drain() {
+            if (mWip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                long requested = mRequested.get();
+                long emitted = 0;
+                while (emitted != requested && !cancelled) {
+                    Object[] data;
+                    synchronized (mBuffer) {
+                        data = mBuffer.poll();
+                    }
+                    if (data == null) {
+                        break;
+                    }
+
+                    mDownstream.onNext(data);
+                    emitted++;
+                }
+
+                if (emitted > 0 && requested != Long.MAX_VALUE) {
+                    mRequested.addAndGet(-emitted);
+                }
+                missed = mWip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
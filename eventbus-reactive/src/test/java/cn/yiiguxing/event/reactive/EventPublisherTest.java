@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.reactive;
+
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cn.yiiguxing.event.EventBus;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventPublisherTest {
+
+    private final EventBus mBus = new EventBus.Builder("test").create();
+
+    @Test
+    public void events_areEmittedOnRequest() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new EventPublisher(mBus, "tag", 8, EventPublisher.Overflow.DROP).subscribe(subscriber);
+
+        post(0, 3);
+        assertEquals("[]", subscriber.received.toString());
+
+        subscriber.subscription.request(2);
+        assertEquals("[0, 1]", subscriber.received.toString());
+
+        subscriber.subscription.request(2);
+        post(3, 5);
+        assertEquals("[0, 1, 2, 3]", subscriber.received.toString());
+    }
+
+    @Test
+    public void dropOverflow_keepsOldestEvents() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new EventPublisher(mBus, "tag", 3, EventPublisher.Overflow.DROP).subscribe(subscriber);
+
+        post(0, 5);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals("[0, 1, 2]", subscriber.received.toString());
+    }
+
+    @Test
+    public void latestOverflow_keepsLatestEvents() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new EventPublisher(mBus, "tag", 3, EventPublisher.Overflow.LATEST).subscribe(subscriber);
+
+        post(0, 5);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals("[2, 3, 4]", subscriber.received.toString());
+    }
+
+    @Test
+    public void cancel_unregistersSubscriber() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new EventPublisher(mBus, "tag", 3, EventPublisher.Overflow.DROP).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        post(0, 1);
+        subscriber.subscription.cancel();
+        post(1, 2);
+
+        assertEquals("[0]", subscriber.received.toString());
+    }
+
+    private void post(int from, int to) {
+        for (int i = from; i < to; i++) {
+            mBus.post("tag", i);
+        }
+    }
+
+    private static class RecordingSubscriber implements Subscriber<Object[]> {
+        final List<Object> received = new ArrayList<>();
+        Subscription subscription;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+        }
+
+        @Override
+        public void onNext(Object[] data) {
+            received.add(data[0]);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            throw new AssertionError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            throw new AssertionError("Completed.");
+        }
+    }
+}
@@ -0,0 +1,4 @@
+# Loaded reflectively by cn.yiiguxing.event.Platform.
+-keep class cn.yiiguxing.event.AndroidPlatform {
+    <init>();
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+
+import cn.yiiguxing.event.handler.EventHandler;
+import cn.yiiguxing.event.handler.FrameUIThreadEventHandler;
+import cn.yiiguxing.event.handler.UIThreadEventHandler;
+
+/**
+ * AndroidPlatform
+ * <p/>
+ * The platform of Android, found by {@link Platform#get()} when this module is on the classpath.
+ * {@link ThreadMode#MAIN} subscribers are handled on the main looper and
+ * {@link ThreadMode#ASYNC} subscribers on {@link AsyncTask#THREAD_POOL_EXECUTOR}.
+ */
+public class AndroidPlatform extends Platform {
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final Executor mMainThreadExecutor = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mHandler.post(command);
+        }
+    };
+
+    @Override
+    public void logDebug(@NonNull String tag, @NonNull String message) {
+        Log.d(tag, message);
+    }
+
+    @Override
+    public void logWarning(@NonNull String tag, @NonNull String message,
+                           @Nullable Throwable throwable) {
+        Log.w(tag, message, throwable);
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return mHandler.getLooper() == Looper.myLooper();
+    }
+
+    @NonNull
+    @Override
+    public Executor getMainThreadExecutor() {
+        return mMainThreadExecutor;
+    }
+
+    @NonNull
+    @Override
+    public Executor getDefaultAsyncExecutor() {
+        return AsyncTask.THREAD_POOL_EXECUTOR;
+    }
+
+    /**
+     * Android has no virtual threads, {@link ThreadMode#VIRTUAL} subscribers are handled on
+     * the async executor.
+     */
+    @Nullable
+    @Override
+    public Executor getVirtualThreadExecutor() {
+        return null;
+    }
+
+    @NonNull
+    @Override
+    public EventHandler createMainThreadHandler(long frameBudgetMillis) {
+        return frameBudgetMillis > 0
+                ? new FrameUIThreadEventHandler(frameBudgetMillis, true)
+                : new UIThreadEventHandler();
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2016 Yii.Guxing <yii.guxing@gmail.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.yiiguxing.event.handler;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.SystemClock;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import cn.yiiguxing.event.Event;
+import cn.yiiguxing.event.Subscriber;
+
+/**
+ * FrameUIThreadEventHandler
+ * <p/>
+ * Delivers events on the main thread through its own queue. However many deliveries are queued,
+ * only one drain message is pending in the main message queue. A drain stops once it has used
+ * its frame budget and defers the remaining deliveries to the next frame, so a burst of events
+ * does not drop frames.
+ */
+public class FrameUIThreadEventHandler extends SimpleEventHandler implements Handler.Callback {
+
+    public static final long DEFAULT_FRAME_BUDGET_MILLIS = 8;
+
+    private static final long FRAME_INTERVAL_MILLIS = 16;
+    private static final int MSG_DRAIN = 1;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper(), this);
+    private final Queue<Delivery> mQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+
+    private final long mFrameBudgetMillis;
+    private final boolean mAsynchronous;
+
+    public FrameUIThreadEventHandler() {
+        this(DEFAULT_FRAME_BUDGET_MILLIS, true);
+    }
+
+    /**
+     * @param frameBudgetMillis the time a drain may spend delivering events.
+     * @param asynchronous      whether drain messages are asynchronous, asynchronous messages are
+     *                          not blocked by the sync barriers of view traversals. Only supported
+     *                          since Android 5.1, ignored on earlier versions.
+     */
+    public FrameUIThreadEventHandler(long frameBudgetMillis, boolean asynchronous) {
+        if (frameBudgetMillis <= 0) {
+            throw new IllegalArgumentException("frameBudgetMillis <= 0 : " + frameBudgetMillis);
+        }
+
+        mFrameBudgetMillis = frameBudgetMillis;
+        mAsynchronous = asynchronous;
+    }
+
+    @Override
+    public final void handlerEvent(@NonNull Subscriber subscriber, @NonNull Event event) {
+        // Deliver directly only if nothing is queued ahead of this event.
+        if (mHandler.getLooper() == Looper.myLooper() && mQueue.isEmpty()) {
+            onHandlerEvent(subscriber, event);
+            return;
+        }
+
+        mQueue.offer(new Delivery(subscriber, event));
+        schedule(0);
+    }
+
+    /**
+     * Queues the whole batch behind a single drain, the frame budget still applies.
+     */
+    @Override
+    public final void handlerEvents(@NonNull Subscriber subscriber, @NonNull List<Event> events) {
+        if (mHandler.getLooper() == Looper.myLooper() && mQueue.isEmpty()) {
+            for (Event event : events) {
+                onHandlerEvent(subscriber, event);
+            }
+            return;
+        }
+
+        for (Event event : events) {
+            mQueue.offer(new Delivery(subscriber, event));
+        }
+        schedule(0);
+    }
+
+    private void schedule(long delayMillis) {
+        if (mScheduled.compareAndSet(false, true)) {
+            Message msg = mHandler.obtainMessage(MSG_DRAIN);
+            if (mAsynchronous && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP_MR1) {
+                msg.setAsynchronous(true);
+            }
+            mHandler.sendMessageDelayed(msg, delayMillis);
+        }
+    }
+
+    @Override
+    public boolean handleMessage(Message msg) {
+        if (msg.what != MSG_DRAIN) {
+            return false;
+        }
+
+        long start = SystemClock.uptimeMillis();
+        long elapsed = 0;
+        try {
+            Delivery delivery;
+            while (elapsed < mFrameBudgetMillis && (delivery = mQueue.poll()) != null) {
+                onHandlerEvent(delivery.subscriber, delivery.event);
+                elapsed = SystemClock.uptimeMillis() - start;
+            }
+        } finally {
+            mScheduled.set(false);
+            if (!mQueue.isEmpty()) {
+                // Out of budget: wait for the next frame.
+                long delay = elapsed < mFrameBudgetMillis
+                        ? 0
+                        : Math.max(0, FRAME_INTERVAL_MILLIS - elapsed);
+                schedule(delay);
+            }
+        }
+
+        return true;
+    }
+
+    @MainThread
+    protected void onHandlerEvent(@NonNull final Subscriber subscriber, @NonNull final Event event) {
+        super.handlerEvent(subscriber, event);
+    }
+
+}
@@ -18,6 +18,8 @@ import android.os.Looper;
 import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 
+import java.util.List;
+
 import cn.yiiguxing.event.Event;
 import cn.yiiguxing.event.Subscriber;
 
@@ -44,6 +46,28 @@ public class UIThreadEventHandler extends SimpleEventHandler {
         }
     }
 
+    @Override
+    public final void handlerEvents(@NonNull final Subscriber subscriber,
+                                    @NonNull final List<Event> events) {
+        if (mHandler.getLooper() != Looper.myLooper()) {
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onHandlerEvents(subscriber, events);
+                }
+            });
+        } else {
+            onHandlerEvents(subscriber, events);
+        }
+    }
+
+    @MainThread
+    private void onHandlerEvents(@NonNull Subscriber subscriber, @NonNull List<Event> events) {
+        for (Event event : events) {
+            onHandlerEvent(subscriber, event);
+        }
+    }
+
     @MainThread
     protected void onHandlerEvent(@NonNull final Subscriber subscriber, @NonNull final Event event) {
         super.handlerEvent(subscriber, event);